@@ -3,9 +3,8 @@ package com.jon.sudoku;
 import android.app.AlertDialog;
 import android.content.Context;
 import android.content.DialogInterface;
-import android.graphics.Color;
-import android.graphics.drawable.ColorDrawable;
 import android.os.Bundle;
+import android.os.Trace;
 import android.support.v7.app.AppCompatActivity;
 import android.view.Menu;
 import android.view.MenuInflater;
@@ -13,28 +12,73 @@ import android.view.MenuItem;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.Button;
-import android.widget.LinearLayout;
+import android.widget.Toast;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This class handles the main Sudoku activity
  */
 public class Sudoku extends AppCompatActivity {
 
-    // Button array keeping every button on the grid
-    private Button[][] gridSquares = new Button[9][9];
+    // Keys of the game saved in the instance state
+    private static final String STATE_GAME = "game";
+    private static final String STATE_HIGHLIGHTED = "highlighted";
+    private static final String STATE_PENDING_LEVEL = "pendingLevel";
+
+    // Moves that can be undone
+    private static final int UNDO_LIMIT = 1000;
+
+    // Keys of the tasks run in the background, a newer task replaces an older one with the same key
+    private static final String TASK_HINT = "hint";
+    private static final String TASK_NEW_GAME = "newGame";
+    private static final String TASK_LOAD_SOLUTIONS = "loadSolutions";
+    private static final String TASK_SOLUTION = "solution";
+
+    // Longest the activity waits on the way out for saving to finish
+    private static final long SAVE_WAIT_MILLIS = 500;
+
+    // Interaction latencies kept for the timings dump
+    private static final int TIMINGS_LIMIT = 1000;
+
+    // View drawing the sudoku grid
+    private SudokuGridView gridView;
 
-    // Difficulty level
-    // 0 = easy, 1 = medium, 2 = hard
-    private int difficulty = 0;
+    // The board, highlight and undo history of the game being played,
+    // an empty board until the first puzzle is ready
+    private Game game = emptyGame();
+
+    // False until a puzzle is on the grid, the empty board is never saved
+    private boolean loaded = false;
+
+    // Difficulty of the puzzle being taken in the background, -1 when none is
+    private int pendingLevel = -1;
 
     // When true, the game will show invalid moves
     private boolean hints = true;
 
-    // Stores the highlighted button
-    private Button highlighted = null;
+    // When true, entries are checked against the solution as they are made
+    private boolean checkSolution = false;
+
+    // Works out hints for a copy of the board, only used on the background thread
+    private final HintEngine hintEngine = new HintEngine();
+
+    // Solves new puzzles for the solution cache, only used on the background thread
+    private final Solver solver = Solvers.create();
+
+    // Runs hint searches and puzzle generation off the UI thread
+    private BackgroundTasks tasks;
 
-    // True when player wins
-    private boolean win = false;
+    // Saves every move so the game survives the process being killed
+    private GameJournal journal;
+
+    // Time from each tap or move until the grid has redrawn it
+    private final InteractionTimings timings = new InteractionTimings(TIMINGS_LIMIT);
 
     /**
      * This method is called when the activity starts.
@@ -47,13 +91,168 @@ public class Sudoku extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
 
-        // Get the sudoku grid linear layout
-        LinearLayout sudokuGrid = (LinearLayout) findViewById(R.id.sudokuGrid);
+        tasks = new BackgroundTasks(new MainThreadExecutor());
+
+        // Get the sudoku grid view and listen for taps on its squares
+        gridView = (SudokuGridView) findViewById(R.id.sudokuGrid);
+        gridView.setTimings(timings);
+        gridView.setOnCellClickListener(new SudokuGridView.OnCellClickListener() {
+            @Override
+            public void onCellClick(int cell) {
+                timings.begin(InteractionTimings.Interaction.TAP, System.nanoTime());
+                gridSquareClick(cell);
+                finishInteraction();
+            }
+        });
+
+        // Long pressing a number rules it out of the highlighted square's pencil marks
+        View.OnLongClickListener ruleOut = new View.OnLongClickListener() {
+            @Override
+            public boolean onLongClick(View view) {
+                return numberRuledOut(view);
+            }
+        };
+        ViewGroup numberPad = (ViewGroup) findViewById(R.id.numberPad);
+        for (int i = 0; i < numberPad.getChildCount(); i++) {
+            ViewGroup numberRow = (ViewGroup) numberPad.getChildAt(i);
+            for (int j = 0; j < numberRow.getChildCount(); j++) {
+                numberRow.getChildAt(j).setOnLongClickListener(ruleOut);
+            }
+        }
+
+        // Draw puzzles from an installed pack, or have generated ones ready by
+        // the time a difficulty is picked
+        File library = new File(getFilesDir(), "puzzles.lib");
+        boolean hasLibrary = false;
+        try {
+            if (library.exists()) {
+                GeneratePuzzle.useLibrary(PuzzleLibrary.open(library));
+                hasLibrary = true;
+            }
+        } catch (IOException e) {
+            // a broken pack falls back to generated puzzles
+        }
+        if (!hasLibrary) {
+            GeneratePuzzle.prefill();
+        }
+
+        // solutions of puzzles from earlier runs, the cache only saves solving again
+        final File solutions = new File(getFilesDir(), "solutions.cache");
+        tasks.submit(TASK_LOAD_SOLUTIONS, new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                if (solutions.exists()) {
+                    GeneratePuzzle.getSolutions().load(solutions);
+                }
+                return null;
+            }
+        }, new BackgroundTasks.Callback<Void>() {
+            @Override
+            public void onResult(Void result) {
+            }
+
+            @Override
+            public void onError(Exception e) {
+                // a broken cache is rebuilt as puzzles are solved
+                solutions.delete();
+            }
+        });
+
+        journal = new GameJournal(new File(getFilesDir(), "game.dat"), new File(getFilesDir(), "game.journal"));
+
+        // carry on with the game from before a rotation, or from disk on a cold start
+        SavedGame game = null;
+        int pending = -1;
+        try {
+            if (savedInstanceState != null) {
+                pending = savedInstanceState.getInt(STATE_PENDING_LEVEL, -1);
+            }
+            if (savedInstanceState != null && savedInstanceState.getByteArray(STATE_GAME) != null) {
+                game = SavedGame.fromBytes(savedInstanceState.getByteArray(STATE_GAME));
+                journal.start(game);
+            } else {
+                game = journal.restore();
+            }
+        } catch (IOException e) {
+            game = null;
+        }
+
+        if (game != null) {
+            showGame(game);
+            if (savedInstanceState != null) {
+                gridSquareClick(savedInstanceState.getInt(STATE_HIGHLIGHTED, -1));
+            }
+        }
+
+        if (pending != -1) {
+            // the old activity's tasks were shut down before its new puzzle arrived
+            newGame(pending);
+        } else if (game == null) {
+            startGame();
+        }
+    }
+
+    @Override
+    protected void onSaveInstanceState(Bundle outState) {
+        super.onSaveInstanceState(outState);
+        if (loaded) {
+            outState.putByteArray(STATE_GAME, game.save().toBytes());
+            outState.putInt(STATE_HIGHLIGHTED, game.getHighlighted());
+        }
+        outState.putInt(STATE_PENDING_LEVEL, pendingLevel);
+    }
+
+    @Override
+    protected void onStop() {
+        super.onStop();
+        if (loaded && game.isJournalFailed()) {
+            // moves since the journal failed are only in memory, save the whole game
+            try {
+                journal.start(game.save());
+                game.setJournal(journal);
+            } catch (IOException e) {
+                // tried again the next time the activity stops
+            }
+        }
 
-        // Draw the lines of the sudoku grid
-        drawSudokuGrid(sudokuGrid);
+        // copy the entries here, the background thread keeps adding to the cache
+        final SolutionCache.Snapshot solutions = GeneratePuzzle.getSolutions().snapshot();
+        final File file = new File(getFilesDir(), "solutions.cache");
+        // not a keyed task, so closing the activity straight after doesn't cancel it
+        tasks.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    solutions.save(file);
+                } catch (IOException e) {
+                    // the solutions are worked out again when needed
+                }
+            }
+        });
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        tasks.shutdown();
+        if (isFinishing()) {
+            // give the solution cache a moment to reach the disk before the process can go
+            try {
+                tasks.awaitTermination(SAVE_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            // every move was already written
+        }
+    }
 
-        startGame();
+    private static Game emptyGame() {
+        Board board = new Board();
+        return new Game(new SavedGame(board, new Candidates(board), 0), UNDO_LIMIT);
     }
 
     /**
@@ -102,236 +301,230 @@ public class Sudoku extends AppCompatActivity {
             item.setChecked(true);
             hints = true;
         }
-    }
 
-    /**
-     * Calls a dialog which asks users to select a difficulty.
-     */
-    private void startGame() {
-
-        win = false;
-
-        //Ask user what difficulty they would like
-        new AlertDialog.Builder(this)
-                .setTitle(R.string.pick_difficulty)
-                .setItems(R.array.colors_array, new DialogInterface.OnClickListener() {
-                    public void onClick(DialogInterface dialog, int which) {
-
-                        //set difficulty level
-                        difficulty = which;
-
-                        //clear the grid of text and color
-                        clearGrid();
-
-                        // Populate sudoku with numbers
-                        populateGrid(GeneratePuzzle.generatePuzzle(difficulty));
-                    }
-                })
-                .setCancelable(false)
-                .show();
+        // show or hide the conflicts already on the grid
+        gridView.setShowConflicts(hints);
     }
 
     /**
-     * Clears the text and color of each button on the sudoku grid
+     * Turns checking entries against the solution on and off. The solution is
+     * looked up in the background, and is usually cached from when the game started.
+     *
+     * @param item
      */
-    private void clearGrid() {
-        for (int i = 0; i < 9; i++) {
-            for (int j = 0; j < 9; j++) {
-                gridSquares[i][j].setText("");
-                gridSquares[i][j].setBackgroundColor(Color.TRANSPARENT);
-                gridSquares[i][j].setClickable(true);
-            }
+    public void onClickCheckSolution(MenuItem item) {
+        checkSolution = !item.isChecked();
+        item.setChecked(checkSolution);
+        if (checkSolution) {
+            startChecking();
+        } else {
+            stopChecking();
         }
     }
 
     /**
-     * This method draws the sudoku grid
+     * When show hint is clicked, the next hint is worked out in the background on
+     * a copy of the board. Clicking again replaces the search, and any move drops it.
      *
-     * @param sudokuGrid
+     * @param item
      */
-    private void drawSudokuGrid(LinearLayout sudokuGrid) {
-
-        // Create 9 columns
-        for (int i = 0; i < 9; i++) {
-            LinearLayout column = createLayout(LinearLayout.VERTICAL);
-
-            // Create 9 Buttons
-            for (int j = 0; j < 9; j++) {
-
-                // Create single grid square
-                Button button = (Button) createButton(
-                        ViewGroup.LayoutParams.MATCH_PARENT,
-                        ViewGroup.LayoutParams.MATCH_PARENT,
-                        1
-                );
-                button.setBackgroundColor(Color.TRANSPARENT);
-                button.setOnClickListener(new View.OnClickListener() {
-                    @Override
-                    public void onClick(View view) {
-                        gridSquareClick((Button) view);
-                    }
-                });
-
-                //Save button to gridSquares array
-                gridSquares[i][j] = button;
-
-                column.addView(button);
+    public void onClickShowHint(MenuItem item) {
+        if (game.isWon()) {
+            return;
+        }
 
-                if (j == 2 || j == 5) {
-                    // add 2 large horizontal lines
-                    column.addView(createHorizontalLine());
-                } else if (j < 8) {
-                    // add small horizontal lines
-                    column.addView(createSmallHorizontalLine());
-                }
+        final Board boardCopy = new Board(game.getBoard());
+        final Candidates candidatesCopy = new Candidates(boardCopy, game.getCandidates());
+        tasks.submit(TASK_HINT, new Callable<Hint>() {
+            @Override
+            public Hint call() throws Exception {
+                return hintEngine.nextHint(boardCopy, candidatesCopy);
             }
-            sudokuGrid.addView(column);
-            if (i == 2 || i == 5) {
-                // add 2 large vertical lines
-                sudokuGrid.addView(createVerticalLine());
-            } else if (i < 8) {
-                // add small Vertical lines
-                sudokuGrid.addView(createSmallVerticalLine());
+        }, new BackgroundTasks.Callback<Hint>() {
+            @Override
+            public void onResult(Hint hint) {
+                showHint(hint);
             }
-        }
+        });
     }
 
     /**
-     * Populates the grid with permanent puzzle digits
+     * Highlights the square the next digit can be worked out for and shows the technique needed
      *
-     * @param puzzle
+     * @param hint the hint, or null when there is none
      */
-    private void populateGrid(int[][] puzzle) {
-
-        //For each grid square
-        for (int i = 0; i < 9; i++) {
-            for (int j = 0; j < 9; j++) {
-                if (!(puzzle[i][j] == 0)) {
-                    gridSquares[i][j].setText("" + puzzle[i][j]);
-                    gridSquares[i][j].setBackgroundColor(getResources().getColor(R.color.set_squares));
-                    gridSquares[i][j].setClickable(false);
-                }
-            }
+    private void showHint(Hint hint) {
+        if (hint == null) {
+            Toast.makeText(this, R.string.no_hint, Toast.LENGTH_SHORT).show();
+            return;
         }
+
+        gridSquareClick(hint.getCell());
+        String technique = getResources().getStringArray(R.array.technique_names)[hint.getTechnique().ordinal()];
+        Toast.makeText(this, getString(R.string.hint_message, technique), Toast.LENGTH_SHORT).show();
     }
 
     /**
-     * Creates a button with the given parameters
+     * When undo is clicked, the last move is taken back
      *
-     * @param width
-     * @param height
-     * @param weight
-     * @return
+     * @param item
      */
-    private Button createButton(int width, int height, int weight) {
-        Button button = new Button(this);
-        button.setLayoutParams(new LinearLayout.LayoutParams(
-                width,
-                height,
-                weight
-        ));
-        return button;
+    public void onClickUndo(MenuItem item) {
+        if (!game.canUndo()) {
+            return;
+        }
+        timings.begin(InteractionTimings.Interaction.UNDO, System.nanoTime());
+        Trace.beginSection("applyMove");
+        try {
+            game.undo();
+        } finally {
+            Trace.endSection();
+        }
+        showMove();
+        finishInteraction();
     }
 
     /**
-     * Creates a small vertical line
+     * When redo is clicked, the last undone move is made again
      *
-     * @return
+     * @param item
      */
-    private View createSmallVerticalLine() {
-        View verticalLine = new View(this);
-        verticalLine.setLayoutParams(new LinearLayout.LayoutParams(
-                (int) getResources().getDimension(R.dimen.small_line_width),
-                ViewGroup.LayoutParams.MATCH_PARENT,
-                0));
-        verticalLine.setBackgroundColor(getResources().getColor(R.color.colorSmallLines));
-        return verticalLine;
+    public void onClickRedo(MenuItem item) {
+        if (!game.canRedo()) {
+            return;
+        }
+        timings.begin(InteractionTimings.Interaction.REDO, System.nanoTime());
+        Trace.beginSection("applyMove");
+        try {
+            game.redo();
+        } finally {
+            Trace.endSection();
+        }
+        showMove();
+        finishInteraction();
     }
 
     /**
-     * Creates a small horizontal line
+     * When dump timings is clicked, the interaction latencies are written to a
+     * file that can be pulled off the device, and the p50 and p99 are shown
      *
-     * @return
+     * @param item
      */
-    private View createSmallHorizontalLine() {
-        View horizontalLine = new View(this);
-        horizontalLine.setLayoutParams(new LinearLayout.LayoutParams(
-                ViewGroup.LayoutParams.MATCH_PARENT,
-                (int) getResources().getDimension(R.dimen.small_line_width),
-                0));
-        horizontalLine.setBackgroundColor(getResources().getColor(R.color.colorSmallLines));
-        return horizontalLine;
+    public void onClickDumpTimings(MenuItem item) {
+        File dir = getExternalFilesDir(null);
+        File file = new File(dir != null ? dir : getFilesDir(), "timings.txt");
+        try {
+            Writer out = new FileWriter(file);
+            try {
+                timings.writeTo(out);
+            } finally {
+                out.close();
+            }
+            Toast.makeText(this, timings.toString().trim(), Toast.LENGTH_LONG).show();
+        } catch (IOException e) {
+            Toast.makeText(this, getString(R.string.timings_failed, file), Toast.LENGTH_SHORT).show();
+        }
     }
 
     /**
-     * Creates a large vertical line
+     * When pencil marks checkbox is clicked, candidates are shown and hidden
      *
-     * @return
+     * @param item
      */
-    private View createVerticalLine() {
-        View verticalLine = new View(this);
-        verticalLine.setLayoutParams(new LinearLayout.LayoutParams(
-                (int) getResources().getDimension(R.dimen.large_line_width),
-                ViewGroup.LayoutParams.MATCH_PARENT,
-                0));
-        verticalLine.setBackgroundColor(getResources().getColor(R.color.colorLargeLines));
-        return verticalLine;
+    public void onClickPencilMarks(MenuItem item) {
+        item.setChecked(!item.isChecked());
+        gridView.setShowCandidates(item.isChecked());
     }
 
     /**
-     * Creates a large horizontal line
+     * Calls a dialog which asks users to select a difficulty.
+     */
+    private void startGame() {
+
+        //Ask user what difficulty they would like
+        new AlertDialog.Builder(this)
+                .setTitle(R.string.pick_difficulty)
+                .setItems(R.array.colors_array, new DialogInterface.OnClickListener() {
+                    public void onClick(DialogInterface dialog, int which) {
+                        newGame(which);
+                    }
+                })
+                .setCancelable(false)
+                .show();
+    }
+
+    /**
+     * Takes a puzzle in the background, it may need generating, then starts playing it
      *
-     * @return
+     * @param level 0 = easy, 1 = medium, 2 = hard
      */
-    private View createHorizontalLine() {
-        View horizontalLine = new View(this);
-        horizontalLine.setLayoutParams(new LinearLayout.LayoutParams(
-                ViewGroup.LayoutParams.MATCH_PARENT,
-                (int) getResources().getDimension(R.dimen.large_line_width),
-                0));
-        horizontalLine.setBackgroundColor(getResources().getColor(R.color.colorLargeLines));
-        return horizontalLine;
+    private void newGame(final int level) {
+        pendingLevel = level;
+        tasks.submit(TASK_NEW_GAME, new Callable<SavedGame>() {
+            @Override
+            public SavedGame call() throws Exception {
+                int[][] digits = GeneratePuzzle.generatePuzzle(level);
+                // solve it now so checking the board later is a cache hit
+                GeneratePuzzle.getSolutions().solve(digits, solver);
+                Board puzzle = new Board(digits);
+                return new SavedGame(puzzle, new Candidates(puzzle), level);
+            }
+        }, new BackgroundTasks.Callback<SavedGame>() {
+            @Override
+            public void onResult(SavedGame game) {
+                pendingLevel = -1;
+                showGame(game);
+                try {
+                    journal.start(game);
+                } catch (IOException e) {
+                    // the game can still be played, it just won't be saved
+                }
+            }
+        });
     }
 
     /**
-     * Create layout to hold grid buttons
+     * Puts a new or restored game on the grid
      *
-     * @param orientation
-     * @return
+     * @param game
      */
-    private LinearLayout createLayout(int orientation) {
-        LinearLayout layout = new LinearLayout(this);
-        layout.setLayoutParams(new LinearLayout.LayoutParams(
-                ViewGroup.LayoutParams.MATCH_PARENT,
-                ViewGroup.LayoutParams.MATCH_PARENT,
-                1));
-        layout.setOrientation(orientation);
-        return layout;
+    private void showGame(SavedGame saved) {
+        game = new Game(saved, UNDO_LIMIT);
+        game.setJournal(journal);
+        loaded = true;
+        tasks.cancel(TASK_HINT);
+        gridView.setBoard(game.getBoard(), game.getCandidates());
+
+        // the solution being checked against was for the old puzzle
+        stopChecking();
+        if (checkSolution) {
+            startChecking();
+        }
     }
 
     /**
      * This is called when a gridSquare is selected.
      * Highlight the new selected square
      *
-     * @param button
+     * @param cell
      */
-    public void gridSquareClick(Button button) {
-
-        // if game is won then break out method
-        if (win) {
-            return;
+    public void gridSquareClick(int cell) {
+
+        Trace.beginSection("gridSquareClick");
+        try {
+            // the game ignores taps once won and on fixed digits,
+            // otherwise the old and new squares are invalidated
+            if (game.tap(cell)) {
+                gridView.setHighlighted(cell);
+            }
+        } finally {
+            Trace.endSection();
         }
-
-        // Set highlighted to button clicked
-        highlighted = button;
-
-        // Update grid colors
-        updateGridColors();
     }
 
     /**
      * This method is called when a number is selected.
-     * Highlighted button is given number selected.
+     * Highlighted square is given number selected.
      * If hints are enabled, check for illegal moves
      *
      * @param view
@@ -339,95 +532,147 @@ public class Sudoku extends AppCompatActivity {
     @SuppressWarnings("unused") //method is called directly from XML
     public void numberSelected(View view) {
 
-        // if game is won, then break out method
-        if (win) {
-            return;
-        }
-
         // get number from button
         String text = ((Button) view).getText().toString();
 
-        // if a button is highlighted
-        if (!(highlighted == null)) {
-            // if CLR is selected, clear button text
-            if (text.equals("CLR")) {
-                highlighted.setText("");
-            } else {
-                //else set text in grid square to button pressed
-                highlighted.setText(text);
+        // if CLR is selected, clear the square
+        // else set the square to button pressed
+        int digit = text.equals("CLR") ? 0 : Integer.parseInt(text);
+
+        timings.begin(InteractionTimings.Interaction.MOVE, System.nanoTime());
+        boolean moved;
+        Trace.beginSection("numberSelected");
+        try {
+            // nothing happens once the game is won, with no square highlighted or the same digit
+            Trace.beginSection("applyMove");
+            try {
+                moved = game.enter(digit);
+            } finally {
+                Trace.endSection();
+            }
+            if (moved) {
+                showMove();
             }
+        } finally {
+            Trace.endSection();
         }
-
-        updateGridColors();
-
-        checkForWin();
+        finishInteraction();
     }
 
     /**
-     * Clear board of colors and recolor elements (e.g. selected grid, errors)
+     * Called when a number is long pressed. The digit is ruled out of the
+     * highlighted square's pencil marks, or back in if it was ruled out.
+     *
+     * @param view
+     * @return true if the long press was used
      */
-    private void updateGridColors() {
+    private boolean numberRuledOut(View view) {
+        String text = ((Button) view).getText().toString();
+        if (text.equals("CLR")) {
+            return false;
+        }
 
-        //Clear background color of all squares
-        for (int i = 0; i < 9; i++) {
-            for (int j = 0; j < 9; j++) {
-                gridSquares[i][j].setBackgroundColor(Color.TRANSPARENT);
+        timings.begin(InteractionTimings.Interaction.MOVE, System.nanoTime());
+        boolean ruled;
+        Trace.beginSection("numberRuledOut");
+        try {
+            // nothing happens once the game is won, with no square highlighted or on a filled one
+            Trace.beginSection("applyMove");
+            try {
+                ruled = game.ruleOut(Integer.parseInt(text));
+            } finally {
+                Trace.endSection();
+            }
+            if (ruled) {
+                showMove();
             }
+        } finally {
+            Trace.endSection();
         }
+        finishInteraction();
+        return ruled;
+    }
 
-        // reset fixed digits
-        populateGrid(GeneratePuzzle.generatePuzzle(difficulty));
-
-        //highlight selected button
-        highlighted.setBackgroundColor(getResources().getColor(R.color.highlightedSquare));
-
-        // if hints are enabled, check for illegal moves to highlight errors
-        if (hints) {
-            checkIllegalMoves();
+    /**
+     * Invalidates the squares the last move changed, then checks for a win
+     */
+    private void showMove() {
+        // a hint still being worked out is for the board before this move
+        tasks.cancel(TASK_HINT);
+        Trace.beginSection("showMove");
+        try {
+            gridView.setHighlighted(game.getHighlighted());
+            for (int i = 0; i < game.getChangedCount(); i++) {
+                gridView.invalidateCell(game.getChanged(i));
+            }
+        } finally {
+            Trace.endSection();
         }
+        checkForWin();
     }
 
     /**
-     * This method checks that all numbers on the grid are valid moves.
-     * It calls
+     * Works out the solution of the puzzle on the board in the background, then
+     * colors wrong entries and says how many there are
      */
-    private void checkIllegalMoves() {
-        // If the number selected is not a legal selection
-        boolean[][] legalMoves = Logic.isLegalMove(gridSquares);
-
-        // go through each button and check legal move
-        for (int i = 0; i < 9; i++) {
-            for (int j = 0; j < 9; j++) {
-                // if false ...
-                if (!legalMoves[i][j]) {
-                    // ... Highlight errors dependant on the type of square it is
-                    if (gridSquares[i][j] == highlighted) {
-                        gridSquares[i][j].setBackgroundColor(getResources().getColor(R.color.illegalMove));
-                    } else if (gridSquares[i][j].isClickable()) {
-                        gridSquares[i][j].setBackgroundColor(getResources().getColor(R.color.conflictingMove));
-                    } else {
-                        gridSquares[i][j].setBackgroundColor(getResources().getColor(R.color.conflicting_set_squares));
-                    }
+    private void startChecking() {
+        final Board board = game.getBoard();
+        final byte[] givens = new byte[Board.CELLS];
+        for (int cell = 0; cell < Board.CELLS; cell++) {
+            givens[cell] = (byte) (board.isGiven(cell) ? board.get(cell) : 0);
+        }
+        tasks.submit(TASK_SOLUTION, new Callable<byte[]>() {
+            @Override
+            public byte[] call() throws Exception {
+                byte[] solution = new byte[Board.CELLS];
+                if (!GeneratePuzzle.getSolutions().solve(givens, solver, solution)) {
+                    throw new IllegalStateException("Puzzle has no solution");
                 }
+                return solution;
+            }
+        }, new BackgroundTasks.Callback<byte[]>() {
+            @Override
+            public void onResult(byte[] solution) {
+                SolutionChecker checker = new SolutionChecker(board, solution);
+                game.setChecker(checker);
+                gridView.setChecker(checker);
+                Toast.makeText(Sudoku.this, getResources().getQuantityString(R.plurals.mistakes,
+                        checker.getMistakes(), checker.getMistakes()), Toast.LENGTH_SHORT).show();
             }
-        }
 
+            @Override
+            public void onError(Exception e) {
+                Toast.makeText(Sudoku.this, R.string.no_solution, Toast.LENGTH_SHORT).show();
+            }
+        });
+    }
+
+    private void stopChecking() {
+        tasks.cancel(TASK_SOLUTION);
+        game.setChecker(null);
+        gridView.setChecker(null);
+    }
+
+    /**
+     * Stops timing an interaction that left nothing to redraw, as no frame will end it
+     */
+    private void finishInteraction() {
+        if (!gridView.isDirty()) {
+            timings.cancel();
+        }
     }
 
     /**
-     * Checks if all grid squares are filled in and there are no conflicts
+     * Congratulates the player once the last move filled every square without conflicts.
+     * The game reads the board model's counts, so it works whether or not hints are shown.
      */
     private void checkForWin() {
-        win = true;
-        for (int i = 0; i < 9; i++) {
-            for (int j = 0; j < 9; j++) {
-                if (((ColorDrawable) gridSquares[i][j].getBackground()).equals(getResources().getColor(R.color.illegalMove)) ||
-                        ((ColorDrawable) gridSquares[i][j].getBackground()).equals(getResources().getColor(R.color.conflictingMove)) ||
-                        ((ColorDrawable) gridSquares[i][j].getBackground()).equals(getResources().getColor(R.color.conflicting_set_squares)) ||
-                        gridSquares[i][j].getText().equals("")) {
-                    win = false;
-                }
-            }
+        boolean win;
+        Trace.beginSection("checkForWin");
+        try {
+            win = game.isWon();
+        } finally {
+            Trace.endSection();
         }
         if (win) {
             new AlertDialog.Builder(this)
@@ -0,0 +1,311 @@
+package com.jon.sudoku;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.os.Trace;
+import android.util.AttributeSet;
+import android.view.MotionEvent;
+import android.view.View;
+
+/**
+ * Draws the whole sudoku grid, its digits, pencil marks, the highlighted square
+ * and any conflicts straight onto the canvas. Paints are created once, drawing doesn't
+ * allocate, and touches are mapped to a cell index.
+ */
+public class SudokuGridView extends View {
+
+    /**
+     * Called when a square on the grid is tapped
+     */
+    public interface OnCellClickListener {
+        void onCellClick(int cell);
+    }
+
+    // Digit characters, drawn from this array so onDraw doesn't create strings
+    private static final char[] DIGITS = {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9'};
+
+    private final Paint squarePaint = new Paint();
+    private final Paint smallLinePaint = new Paint();
+    private final Paint largeLinePaint = new Paint();
+    private final Paint digitPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint candidatePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+
+    // Area of the canvas being redrawn, filled in each frame so onDraw doesn't allocate
+    private final Rect clip = new Rect();
+
+    private final int setSquareColor;
+    private final int highlightedColor;
+    private final int illegalMoveColor;
+    private final int conflictingMoveColor;
+    private final int conflictingSetSquareColor;
+
+    private Board board = new Board();
+    private Candidates candidates = new Candidates(board);
+    private int highlighted = -1;
+    private boolean showConflicts = true;
+
+    // Colors entries that don't match the solution, null when not checking
+    private SolutionChecker checker;
+    private boolean showCandidates = false;
+    private OnCellClickListener listener;
+
+    // Interactions waiting on a redraw, told when each frame is drawn
+    private InteractionTimings timings;
+
+    // Position of the square grid within the view
+    private float left;
+    private float top;
+    private float cellSize;
+
+    // Offset from the middle of a square to the digit baseline
+    private float digitOffset;
+    private float candidateOffset;
+
+    public SudokuGridView(Context context) {
+        this(context, null);
+    }
+
+    public SudokuGridView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+
+        setSquareColor = getResources().getColor(R.color.set_squares);
+        highlightedColor = getResources().getColor(R.color.highlightedSquare);
+        illegalMoveColor = getResources().getColor(R.color.illegalMove);
+        conflictingMoveColor = getResources().getColor(R.color.conflictingMove);
+        conflictingSetSquareColor = getResources().getColor(R.color.conflicting_set_squares);
+
+        squarePaint.setStyle(Paint.Style.FILL);
+        smallLinePaint.setColor(getResources().getColor(R.color.colorSmallLines));
+        smallLinePaint.setStrokeWidth(getResources().getDimension(R.dimen.small_line_width));
+        largeLinePaint.setColor(getResources().getColor(R.color.colorLargeLines));
+        largeLinePaint.setStrokeWidth(getResources().getDimension(R.dimen.large_line_width));
+        digitPaint.setColor(Color.BLACK);
+        digitPaint.setTextAlign(Paint.Align.CENTER);
+        candidatePaint.setColor(getResources().getColor(R.color.colorSmallLines));
+        candidatePaint.setTextAlign(Paint.Align.CENTER);
+    }
+
+    public void setOnCellClickListener(OnCellClickListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Ends the timing of the waiting interaction each time the grid finishes drawing
+     *
+     * @param timings
+     */
+    public void setTimings(InteractionTimings timings) {
+        this.timings = timings;
+    }
+
+    /**
+     * Shows a new board and redraws the whole grid
+     *
+     * @param board
+     * @param candidates pencil marks of the board
+     */
+    public void setBoard(Board board, Candidates candidates) {
+        this.board = board;
+        this.candidates = candidates;
+        highlighted = -1;
+        invalidate();
+    }
+
+    /**
+     * Moves the highlight, invalidating the old and new squares
+     *
+     * @param cell the cell to highlight, -1 for none
+     */
+    public void setHighlighted(int cell) {
+        int previous = highlighted;
+        highlighted = cell;
+        if (previous != -1) {
+            invalidateCell(previous);
+        }
+        if (cell != -1) {
+            invalidateCell(cell);
+        }
+    }
+
+    /**
+     * When true, squares with repeated digits are colored
+     *
+     * @param showConflicts
+     */
+    public void setShowConflicts(boolean showConflicts) {
+        this.showConflicts = showConflicts;
+        invalidate();
+    }
+
+    /**
+     * Colors entries that don't match the solution like conflicts
+     *
+     * @param checker the solution of the board, or null to stop checking
+     */
+    public void setChecker(SolutionChecker checker) {
+        this.checker = checker;
+        invalidate();
+    }
+
+    /**
+     * When true, the candidates of empty squares are drawn as pencil marks
+     *
+     * @param showCandidates
+     */
+    public void setShowCandidates(boolean showCandidates) {
+        this.showCandidates = showCandidates;
+        invalidate();
+    }
+
+    /**
+     * Invalidates a single square after its digit or conflict state changed.
+     * Drawn in software, only the squares under the dirty area are redrawn.
+     * With hardware acceleration the area is ignored and the whole grid is
+     * recorded again, which is 81 squares of rects and text.
+     *
+     * @param cell
+     */
+    public void invalidateCell(int cell) {
+        float x = left + Board.column(cell) * cellSize;
+        float y = top + Board.row(cell) * cellSize;
+        invalidate((int) x, (int) y, (int) Math.ceil(x + cellSize), (int) Math.ceil(y + cellSize));
+    }
+
+    @Override
+    protected void onSizeChanged(int width, int height, int oldWidth, int oldHeight) {
+        super.onSizeChanged(width, height, oldWidth, oldHeight);
+
+        // fit the largest square grid in the middle of the view
+        float side = Math.min(width, height);
+        cellSize = side / Board.SIZE;
+        left = (width - side) / 2;
+        top = (height - side) / 2;
+
+        digitPaint.setTextSize(cellSize * 0.6f);
+        digitOffset = -(digitPaint.ascent() + digitPaint.descent()) / 2;
+        candidatePaint.setTextSize(cellSize / Board.BOX_SIZE * 0.8f);
+        candidateOffset = -(candidatePaint.ascent() + candidatePaint.descent()) / 2;
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        Trace.beginSection("SudokuGridView.onDraw");
+        try {
+            drawGrid(canvas);
+        } finally {
+            Trace.endSection();
+        }
+        if (timings != null) {
+            timings.end(System.nanoTime());
+        }
+    }
+
+    private void drawGrid(Canvas canvas) {
+        // squares and digits, skipping any outside the area being redrawn
+        boolean clipped = canvas.getClipBounds(clip);
+        for (int cell = 0; cell < Board.CELLS; cell++) {
+            float x = left + Board.column(cell) * cellSize;
+            float y = top + Board.row(cell) * cellSize;
+            if (clipped && !clip.intersects((int) x, (int) y,
+                    (int) Math.ceil(x + cellSize), (int) Math.ceil(y + cellSize))) {
+                continue;
+            }
+
+            int color = squareColor(cell);
+            if (color != Color.TRANSPARENT) {
+                squarePaint.setColor(color);
+                canvas.drawRect(x, y, x + cellSize, y + cellSize, squarePaint);
+            }
+
+            int digit = board.get(cell);
+            if (digit != 0) {
+                canvas.drawText(DIGITS, digit, 1, x + cellSize / 2, y + cellSize / 2 + digitOffset, digitPaint);
+            } else if (showCandidates) {
+                drawCandidates(canvas, cell, x, y);
+            }
+        }
+
+        // lines between the squares, thicker around each box
+        float right = left + cellSize * Board.SIZE;
+        float bottom = top + cellSize * Board.SIZE;
+        for (int i = 1; i < Board.SIZE; i++) {
+            Paint paint = i % Board.BOX_SIZE == 0 ? largeLinePaint : smallLinePaint;
+            float offset = i * cellSize;
+            canvas.drawLine(left + offset, top, left + offset, bottom, paint);
+            canvas.drawLine(left, top + offset, right, top + offset, paint);
+        }
+    }
+
+    /**
+     * Draws each candidate in its own spot of a 3x3 grid inside the square
+     */
+    private void drawCandidates(Canvas canvas, int cell, float x, float y) {
+        int mask = candidates.get(cell);
+        float markSize = cellSize / Board.BOX_SIZE;
+        for (int digit = 1; digit <= Board.SIZE; digit++) {
+            if ((mask & (1 << digit)) != 0) {
+                float markX = x + ((digit - 1) % Board.BOX_SIZE + 0.5f) * markSize;
+                float markY = y + ((digit - 1) / Board.BOX_SIZE + 0.5f) * markSize + candidateOffset;
+                canvas.drawText(DIGITS, digit, 1, markX, markY, candidatePaint);
+            }
+        }
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        if (event.getActionMasked() == MotionEvent.ACTION_DOWN) {
+            return true;
+        }
+        if (event.getActionMasked() == MotionEvent.ACTION_UP) {
+            int cell = cellAt(event.getX(), event.getY());
+            if (cell != -1 && listener != null) {
+                listener.onCellClick(cell);
+            }
+            performClick();
+            return true;
+        }
+        return super.onTouchEvent(event);
+    }
+
+    @Override
+    public boolean performClick() {
+        return super.performClick();
+    }
+
+    /**
+     * Maps a touch to the square under it
+     *
+     * @return the cell index, or -1 if outside the grid
+     */
+    private int cellAt(float x, float y) {
+        int column = (int) ((x - left) / cellSize);
+        int row = (int) ((y - top) / cellSize);
+        if (x < left || y < top || column >= Board.SIZE || row >= Board.SIZE) {
+            return -1;
+        }
+        return Board.cell(row, column);
+    }
+
+    /**
+     * Background of a square, errors are colored dependant on the type of square it is
+     */
+    private int squareColor(int cell) {
+        boolean wrong = checker != null && checker.isWrong(cell, board.get(cell));
+        if (showConflicts && board.isConflicting(cell) || wrong) {
+            if (cell == highlighted) {
+                return illegalMoveColor;
+            } else if (board.isGiven(cell)) {
+                return conflictingSetSquareColor;
+            }
+            return conflictingMoveColor;
+        } else if (cell == highlighted) {
+            return highlightedColor;
+        } else if (board.isGiven(cell)) {
+            return setSquareColor;
+        }
+        return Color.TRANSPARENT;
+    }
+}
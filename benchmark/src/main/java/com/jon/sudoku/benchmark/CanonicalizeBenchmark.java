@@ -0,0 +1,74 @@
+package com.jon.sudoku.benchmark;
+
+import com.jon.sudoku.BitboardSolver;
+import com.jon.sudoku.Board;
+import com.jon.sudoku.Canonicalizer;
+import com.jon.sudoku.LongHashSet;
+import com.jon.sudoku.PuzzleGenerator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Puzzles canonicalized per second, the throughput of deduplicating a pack on one core
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CanonicalizeBenchmark {
+
+    private static final int PUZZLES = 1024;
+
+    @Param({"generated", "corpus"})
+    public String puzzles;
+
+    private byte[][] digits;
+    private int next;
+
+    private final Canonicalizer canonicalizer = new Canonicalizer();
+    private final LongHashSet seen = new LongHashSet(PUZZLES);
+
+    @Setup
+    public void setUp() {
+        Board[] boards;
+        if (puzzles.equals("generated")) {
+            boards = new Board[PUZZLES];
+            PuzzleGenerator generator = new PuzzleGenerator(new BitboardSolver(), 1);
+            for (int i = 0; i < PUZZLES; i++) {
+                boards[i] = generator.generate(i % 3);
+            }
+        } else {
+            boards = Corpus.hardPuzzles();
+        }
+        digits = new byte[boards.length][Board.CELLS];
+        for (int i = 0; i < boards.length; i++) {
+            for (int cell = 0; cell < Board.CELLS; cell++) {
+                digits[i][cell] = (byte) boards[i].get(cell);
+            }
+        }
+    }
+
+    @Benchmark
+    public long hash() {
+        return canonicalizer.hash(digits[next++ % digits.length]);
+    }
+
+    @Benchmark
+    public boolean dedup() {
+        return seen.add(canonicalizer.hash(digits[next++ % digits.length]));
+    }
+}
@@ -0,0 +1,62 @@
+package com.jon.sudoku.benchmark;
+
+import com.jon.sudoku.Board;
+import com.jon.sudoku.GeneratePuzzle;
+import com.jon.sudoku.PuzzleReader;
+import com.jon.sudoku.Solver;
+import com.jon.sudoku.Solvers;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Puzzles and solvers shared by the benchmarks
+ */
+public final class Corpus {
+
+    private Corpus() {
+    }
+
+    /**
+     * @param name "easy", "medium", "hard" for a fixture or "corpus" for the hard puzzle corpus
+     * @return the puzzles
+     */
+    public static Board[] puzzles(String name) {
+        switch (name) {
+            case "easy":
+                return new Board[]{new Board(GeneratePuzzle.fixture(0))};
+            case "medium":
+                return new Board[]{new Board(GeneratePuzzle.fixture(1))};
+            case "hard":
+                return new Board[]{new Board(GeneratePuzzle.fixture(2))};
+            case "corpus":
+                return hardPuzzles();
+        }
+        throw new IllegalArgumentException("Unknown puzzles: " + name);
+    }
+
+    /**
+     * @param name "backtracking", "dlx" or "bitboard"
+     * @return a new solver
+     */
+    public static Solver solver(String name) {
+        return Solvers.create(name);
+    }
+
+    /**
+     * Reads the puzzles in hard-puzzles.txt
+     */
+    public static Board[] hardPuzzles() {
+        List<Board> boards = new ArrayList<>();
+        byte[] digits = new byte[Board.CELLS];
+        try (PuzzleReader reader = new PuzzleReader(Corpus.class.getResourceAsStream("/hard-puzzles.txt"))) {
+            while (reader.next(digits)) {
+                boards.add(new Board(digits));
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return boards.toArray(new Board[boards.size()]);
+    }
+}
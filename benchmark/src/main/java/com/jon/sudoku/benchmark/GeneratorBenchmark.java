@@ -0,0 +1,48 @@
+package com.jon.sudoku.benchmark;
+
+import com.jon.sudoku.Board;
+import com.jon.sudoku.PuzzleGenerator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generator throughput on one thread, reported as puzzles per second
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GeneratorBenchmark {
+
+    @Param({"backtracking", "dlx", "bitboard"})
+    public String solver;
+
+    @Param({"0", "1", "2"})
+    public int difficulty;
+
+    private PuzzleGenerator generator;
+
+    @Setup
+    public void setUp() {
+        generator = new PuzzleGenerator(Corpus.solver(solver), 1);
+    }
+
+    @Benchmark
+    public Board generate() {
+        return generator.generate(difficulty);
+    }
+}
@@ -0,0 +1,60 @@
+package com.jon.sudoku.benchmark;
+
+import com.jon.sudoku.Board;
+import com.jon.sudoku.Geometry;
+import com.jon.sudoku.PuzzleGenerator;
+import com.jon.sudoku.Solver;
+import com.jon.sudoku.Solvers;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to generate a hard puzzle and to check one has a single solution
+ * on grids of each size, given as the rows x columns of a box
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GridSizeBenchmark {
+
+    @Param({"2x3", "3x3", "3x4", "4x4", "5x5"})
+    public String boxes;
+
+    private PuzzleGenerator generator;
+    private Solver solver;
+    private Board puzzle;
+
+    @Setup
+    public void setUp() {
+        String[] parts = boxes.split("x");
+        Geometry geometry = new Geometry(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]));
+        solver = Solvers.create(geometry);
+        generator = new PuzzleGenerator(geometry, Solvers.create(geometry), 1);
+        puzzle = generator.generate(2);
+    }
+
+    @Benchmark
+    public Board generate() {
+        return generator.generate(2);
+    }
+
+    @Benchmark
+    public int countSolutions() {
+        return solver.countSolutions(puzzle, 2);
+    }
+}
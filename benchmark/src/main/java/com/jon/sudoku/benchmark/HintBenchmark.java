@@ -0,0 +1,61 @@
+package com.jon.sudoku.benchmark;
+
+import com.jon.sudoku.Board;
+import com.jon.sudoku.Hint;
+import com.jon.sudoku.HintEngine;
+import com.jon.sudoku.Technique;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to find a hint and to grade a whole puzzle, which should both stay
+ * well inside a 16 ms frame.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HintBenchmark {
+
+    @Param({"easy", "medium", "hard", "corpus"})
+    public String puzzles;
+
+    private final HintEngine engine = new HintEngine();
+    private Board[] boards;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        boards = Corpus.puzzles(puzzles);
+    }
+
+    @Benchmark
+    public Hint nextHint() {
+        return engine.nextHint(nextBoard());
+    }
+
+    @Benchmark
+    public Technique grade() {
+        return engine.grade(nextBoard());
+    }
+
+    private Board nextBoard() {
+        Board board = boards[next];
+        next = (next + 1) % boards.length;
+        return board;
+    }
+}
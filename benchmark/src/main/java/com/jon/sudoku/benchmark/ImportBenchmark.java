@@ -0,0 +1,86 @@
+package com.jon.sudoku.benchmark;
+
+import com.jon.sudoku.Board;
+import com.jon.sudoku.PuzzleReader;
+import com.jon.sudoku.PuzzleWriter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading and writing a 100,000 puzzle file (8.2 MB) held in memory, so the
+ * parser is measured rather than the disk. MB/s is 8.2 divided by the time.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ImportBenchmark {
+
+    private static final int PUZZLES = 100000;
+
+    private final byte[] digits = new byte[Board.CELLS];
+    private byte[][] puzzles;
+    private byte[] file;
+
+    @Setup
+    public void setUp() throws IOException {
+        Random random = new Random(1);
+        puzzles = new byte[PUZZLES][Board.CELLS];
+        ByteArrayOutputStream out = new ByteArrayOutputStream(PUZZLES * (Board.CELLS + 1));
+        PuzzleWriter writer = new PuzzleWriter(out);
+        for (byte[] puzzle : puzzles) {
+            for (int cell = 0; cell < Board.CELLS; cell++) {
+                // about a third of the squares given, like a real puzzle
+                puzzle[cell] = (byte) (random.nextInt(3) == 0 ? 1 + random.nextInt(9) : 0);
+            }
+            writer.write(puzzle);
+        }
+        writer.close();
+        file = out.toByteArray();
+    }
+
+    @Benchmark
+    public int read() throws IOException {
+        int givens = 0;
+        PuzzleReader reader = new PuzzleReader(new ByteArrayInputStream(file));
+        while (reader.next(digits)) {
+            givens += digits[0];
+        }
+        return givens;
+    }
+
+    @Benchmark
+    public void write() throws IOException {
+        PuzzleWriter writer = new PuzzleWriter(new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+            }
+        });
+        for (byte[] puzzle : puzzles) {
+            writer.write(puzzle);
+        }
+        writer.close();
+    }
+}
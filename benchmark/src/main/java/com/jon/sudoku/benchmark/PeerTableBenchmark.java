@@ -0,0 +1,158 @@
+package com.jon.sudoku.benchmark;
+
+import com.jon.sudoku.Board;
+import com.jon.sudoku.GeneratePuzzle;
+import com.jon.sudoku.Geometry;
+import com.jon.sudoku.Logic;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of finding conflicts after a move using the {@link Geometry} peer and unit
+ * tables, against the nested row, column and box loops they replaced and the
+ * {@link Logic} scan of the grid text.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PeerTableBenchmark {
+
+    private static final int MOVES = 1024;
+
+    private static final Geometry GEOMETRY = Geometry.STANDARD;
+
+    private static final String[] TEXT = {"", "1", "2", "3", "4", "5", "6", "7", "8", "9"};
+
+    // Pre-generated moves on the empty squares of the easy fixture
+    private final int[] cells = new int[MOVES];
+    private final int[] digits = new int[MOVES];
+    private int next;
+
+    private final String[][] gridText = new String[Board.SIZE][Board.SIZE];
+    private final byte[] values = new byte[Board.CELLS];
+    private final boolean[] conflicting = new boolean[Board.CELLS];
+
+    @Setup
+    public void setUp() {
+        int[][] puzzle = GeneratePuzzle.fixture(0);
+        Board board = new Board(puzzle);
+        for (int row = 0; row < Board.SIZE; row++) {
+            Arrays.fill(gridText[row], "");
+            for (int column = 0; column < Board.SIZE; column++) {
+                if (puzzle[row][column] != 0) {
+                    gridText[row][column] = "" + puzzle[row][column];
+                    values[Board.cell(row, column)] = (byte) puzzle[row][column];
+                }
+            }
+        }
+
+        Random random = new Random(1);
+        for (int i = 0; i < MOVES; i++) {
+            int cell;
+            do {
+                cell = random.nextInt(Board.CELLS);
+            } while (board.isGiven(cell));
+            cells[i] = cell;
+            digits[i] = random.nextInt(Board.SIZE + 1);
+        }
+    }
+
+    /**
+     * Makes the next move on the digits
+     *
+     * @return the moved cell
+     */
+    private int move() {
+        int i = next++ & (MOVES - 1);
+        values[cells[i]] = (byte) digits[i];
+        return cells[i];
+    }
+
+    @Benchmark
+    public boolean[][] logicScan() {
+        int cell = move();
+        gridText[Board.row(cell)][Board.column(cell)] = TEXT[values[cell]];
+        return Logic.isLegalMove(gridText);
+    }
+
+    @Benchmark
+    public boolean[] unitTables() {
+        move();
+        Arrays.fill(conflicting, false);
+        for (int unit = 0; unit < 3 * Board.SIZE; unit++) {
+            int[] unitCells = GEOMETRY.unit(unit);
+            int seen = 0;
+            int repeated = 0;
+            for (int cell : unitCells) {
+                int bit = 1 << values[cell];
+                repeated |= seen & bit;
+                seen |= bit;
+            }
+            repeated &= ~1;
+            if (repeated != 0) {
+                for (int cell : unitCells) {
+                    if ((repeated & 1 << values[cell]) != 0) {
+                        conflicting[cell] = true;
+                    }
+                }
+            }
+        }
+        return conflicting;
+    }
+
+    @Benchmark
+    public int coordinateLoops() {
+        int cell = move();
+        int digit = values[cell];
+        int row = cell / Board.SIZE;
+        int column = cell % Board.SIZE;
+        int repeats = 0;
+        for (int i = 0; i < Board.SIZE; i++) {
+            if (i != column && values[row * Board.SIZE + i] == digit) {
+                repeats++;
+            }
+            if (i != row && values[i * Board.SIZE + column] == digit) {
+                repeats++;
+            }
+        }
+        int firstRow = row - row % Board.BOX_SIZE;
+        int firstColumn = column - column % Board.BOX_SIZE;
+        for (int boxRow = firstRow; boxRow < firstRow + Board.BOX_SIZE; boxRow++) {
+            for (int boxColumn = firstColumn; boxColumn < firstColumn + Board.BOX_SIZE; boxColumn++) {
+                if (boxRow != row && boxColumn != column && values[boxRow * Board.SIZE + boxColumn] == digit) {
+                    repeats++;
+                }
+            }
+        }
+        return repeats;
+    }
+
+    @Benchmark
+    public int peerTable() {
+        int cell = move();
+        int digit = values[cell];
+        int repeats = 0;
+        for (int peer : GEOMETRY.peers(cell)) {
+            if (values[peer] == digit) {
+                repeats++;
+            }
+        }
+        return repeats;
+    }
+}
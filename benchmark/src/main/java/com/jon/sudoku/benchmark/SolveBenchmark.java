@@ -0,0 +1,64 @@
+package com.jon.sudoku.benchmark;
+
+import com.jon.sudoku.Board;
+import com.jon.sudoku.Solver;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full solves and uniqueness checks of the fixtures and the hard puzzle corpus.
+ * Corpus results are the mean over all of its puzzles.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SolveBenchmark {
+
+    @Param({"backtracking", "dlx", "bitboard"})
+    public String solver;
+
+    @Param({"easy", "medium", "hard", "corpus"})
+    public String puzzles;
+
+    private Solver instance;
+    private Board[] boards;
+    private final byte[] solution = new byte[Board.CELLS];
+    private int next;
+
+    @Setup
+    public void setUp() {
+        instance = Corpus.solver(solver);
+        boards = Corpus.puzzles(puzzles);
+    }
+
+    @Benchmark
+    public boolean solve() {
+        return instance.solve(nextBoard(), solution);
+    }
+
+    @Benchmark
+    public int countSolutions() {
+        return instance.countSolutions(nextBoard(), 2);
+    }
+
+    private Board nextBoard() {
+        Board board = boards[next];
+        next = (next + 1) % boards.length;
+        return board;
+    }
+}
@@ -0,0 +1,95 @@
+package com.jon.sudoku.benchmark;
+
+import com.jon.sudoku.Board;
+import com.jon.sudoku.GeneratePuzzle;
+import com.jon.sudoku.Logic;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of checking the grid after a single move, comparing the full text scan
+ * in {@link Logic} with the incremental {@link Board} model.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+
+    private static final int MOVES = 1024;
+
+    // Pre-generated moves on the empty squares of the easy fixture
+    private final int[] cells = new int[MOVES];
+    private final int[] digits = new int[MOVES];
+    private int next;
+
+    private final String[][] gridText = new String[Board.SIZE][Board.SIZE];
+    private Board board;
+
+    @Setup
+    public void setUp() {
+        int[][] puzzle = GeneratePuzzle.fixture(0);
+        board = new Board(puzzle);
+        for (int row = 0; row < Board.SIZE; row++) {
+            Arrays.fill(gridText[row], "");
+            for (int column = 0; column < Board.SIZE; column++) {
+                if (puzzle[row][column] != 0) {
+                    gridText[row][column] = "" + puzzle[row][column];
+                }
+            }
+        }
+
+        Random random = new Random(1);
+        for (int i = 0; i < MOVES; i++) {
+            int cell;
+            do {
+                cell = random.nextInt(Board.CELLS);
+            } while (board.isGiven(cell));
+            cells[i] = cell;
+            digits[i] = random.nextInt(Board.SIZE + 1);
+        }
+    }
+
+    @Benchmark
+    public boolean[][] logicScan() {
+        int i = next++ & (MOVES - 1);
+        int digit = digits[i];
+        gridText[Board.row(cells[i])][Board.column(cells[i])] = digit == 0 ? "" : "" + digit;
+        return Logic.isLegalMove(gridText);
+    }
+
+    @Benchmark
+    public int boardAllCells() {
+        int i = next++ & (MOVES - 1);
+        board.set(cells[i], digits[i]);
+        int conflicts = 0;
+        for (int cell = 0; cell < Board.CELLS; cell++) {
+            if (board.isConflicting(cell)) {
+                conflicts++;
+            }
+        }
+        return conflicts;
+    }
+
+    @Benchmark
+    public boolean boardMovedCell() {
+        int i = next++ & (MOVES - 1);
+        board.set(cells[i], digits[i]);
+        return board.isConflicting(cells[i]);
+    }
+}
@@ -0,0 +1,62 @@
+package com.jon.sudoku.cli;
+
+import com.jon.sudoku.Board;
+import com.jon.sudoku.PuzzleLibraryWriter;
+import com.jon.sudoku.PuzzleReader;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Turns a puzzle pack written by {@link GeneratePack} into a memory mapped
+ * puzzle library. The pack is read twice, once to count the puzzles of each
+ * difficulty for the library header and once to write them.
+ * <p>
+ * Usage: BuildLibrary pack.txt puzzles.lib
+ */
+public class BuildLibrary {
+
+    private static final int DIFFICULTIES = 3;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length != 2) {
+            System.err.println("Usage: BuildLibrary pack.txt puzzles.lib");
+            System.exit(1);
+        }
+        File pack = new File(args[0]);
+        byte[] digits = new byte[Board.CELLS];
+
+        int[] counts = new int[DIFFICULTIES];
+        PuzzleReader reader = PuzzleReader.open(pack);
+        try {
+            while (reader.next(digits)) {
+                counts[difficulty(reader)]++;
+            }
+        } finally {
+            reader.close();
+        }
+
+        PuzzleLibraryWriter writer = new PuzzleLibraryWriter(new File(args[1]), counts);
+        reader = PuzzleReader.open(pack);
+        try {
+            while (reader.next(digits)) {
+                writer.add(difficulty(reader), digits);
+            }
+        } finally {
+            reader.close();
+            writer.close();
+        }
+        System.err.println(String.format("%d easy, %d medium and %d hard puzzles", counts[0], counts[1], counts[2]));
+    }
+
+    /**
+     * Reads the difficulty written after the puzzle digits
+     */
+    private static int difficulty(PuzzleReader reader) throws IOException {
+        int difficulty = reader.getLabel();
+        if (difficulty < 0 || difficulty >= DIFFICULTIES) {
+            throw new IOException("Bad difficulty: " + difficulty);
+        }
+        return difficulty;
+    }
+}
@@ -0,0 +1,106 @@
+package com.jon.sudoku.cli;
+
+import com.jon.sudoku.Board;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+/**
+ * Canonical forms of the puzzles kept so far, two cells to a byte in a temporary
+ * file, so a matching hash can be confirmed against the earlier puzzle without
+ * keeping 81 cells per puzzle in memory. Records are written a buffer at a time
+ * and read back one at a time, which only happens when a hash repeats.
+ */
+class CanonicalStore implements Closeable {
+
+    static final int RECORD_SIZE = (Board.CELLS + 1) / 2;
+
+    // Records written to the file at a time
+    private static final int BUFFER_RECORDS = 1024;
+
+    private final File file;
+    private final RandomAccessFile data;
+    private final byte[] buffer = new byte[BUFFER_RECORDS * RECORD_SIZE];
+    private final byte[] record = new byte[RECORD_SIZE];
+
+    // Records in the file, then records waiting in the buffer
+    private int written;
+    private int buffered;
+
+    /**
+     * @param file temporary file the records go in, deleted on close
+     * @throws IOException
+     */
+    CanonicalStore(File file) throws IOException {
+        this.file = file;
+        data = new RandomAccessFile(file, "rw");
+        data.setLength(0);
+    }
+
+    /**
+     * @param canonical 81 cells of a canonical form
+     * @return index of its record
+     * @throws IOException
+     */
+    int add(byte[] canonical) throws IOException {
+        if (buffered == BUFFER_RECORDS) {
+            flush();
+        }
+        pack(canonical, buffer, buffered * RECORD_SIZE);
+        buffered++;
+        return written + buffered - 1;
+    }
+
+    /**
+     * @param index     index of a record
+     * @param canonical 81 cells of a canonical form
+     * @return true if the record holds the same form
+     * @throws IOException
+     */
+    boolean matches(int index, byte[] canonical) throws IOException {
+        byte[] bytes;
+        int offset;
+        if (index >= written) {
+            bytes = buffer;
+            offset = (index - written) * RECORD_SIZE;
+        } else {
+            data.seek((long) index * RECORD_SIZE);
+            data.readFully(record);
+            bytes = record;
+            offset = 0;
+        }
+        for (int cell = 0; cell < Board.CELLS; cell++) {
+            int packed = bytes[offset + cell / 2];
+            int digit = cell % 2 == 0 ? packed >> 4 & 0xF : packed & 0xF;
+            if (digit != canonical[cell]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        data.close();
+        if (!file.delete() && file.exists()) {
+            throw new IOException("Cannot delete " + file);
+        }
+    }
+
+    private void flush() throws IOException {
+        data.seek((long) written * RECORD_SIZE);
+        data.write(buffer, 0, buffered * RECORD_SIZE);
+        written += buffered;
+        buffered = 0;
+    }
+
+    private static void pack(byte[] canonical, byte[] out, int offset) {
+        for (int i = 0; i < RECORD_SIZE; i++) {
+            int high = canonical[2 * i];
+            int low = 2 * i + 1 < Board.CELLS ? canonical[2 * i + 1] : 0;
+            out[offset + i] = (byte) (high << 4 | low);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.jon.sudoku.cli;
+
+import com.jon.sudoku.Board;
+import com.jon.sudoku.Canonicalizer;
+import com.jon.sudoku.LongIntHashMap;
+import com.jon.sudoku.PuzzleReader;
+import com.jon.sudoku.PuzzleWriter;
+
+import java.io.File;
+
+/**
+ * Drops puzzles from a pack that are another puzzle of the pack in disguise,
+ * with the digits relabelled, rows, columns, bands or stacks swapped or the grid
+ * transposed. The first of each is kept along with its difficulty.
+ * <p>
+ * Only the 64 bit hash of each canonical form and the index of its puzzle are
+ * kept in memory, at most 24 bytes a puzzle, so a pack of tens of millions fits in
+ * a few hundred megabytes. The canonical forms themselves go to a temporary file
+ * next to the output, and a repeated hash is only taken as a duplicate once the
+ * forms match. Two different puzzles sharing a hash is very unlikely, so the
+ * second one just moves on to the next hash in a fixed sequence.
+ * <p>
+ * Usage: DedupPack pack.txt unique.txt [expected puzzles]
+ */
+public class DedupPack {
+
+    private static final long PROGRESS_INTERVAL_MILLIS = 1000;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2 || args.length > 3) {
+            System.err.println("Usage: DedupPack pack.txt unique.txt [expected puzzles]");
+            System.exit(1);
+        }
+        int expected = args.length == 3 ? Integer.parseInt(args[2]) : 1 << 20;
+
+        Canonicalizer canonicalizer = new Canonicalizer();
+        LongIntHashMap seen = new LongIntHashMap(expected);
+        byte[] digits = new byte[Board.CELLS];
+        byte[] canonical = new byte[Board.CELLS];
+        long collisions = 0;
+        long read = 0;
+        long startTime = System.nanoTime();
+        long lastProgress = System.currentTimeMillis();
+
+        PuzzleReader reader = PuzzleReader.open(new File(args[0]));
+        PuzzleWriter writer = PuzzleWriter.create(new File(args[1]));
+        CanonicalStore forms = new CanonicalStore(new File(args[1] + ".canonical"));
+        try {
+            while (reader.next(digits)) {
+                read++;
+                canonicalizer.canonicalize(digits, canonical);
+                long hash = Canonicalizer.hashOf(canonical);
+                int index;
+                while ((index = seen.get(hash)) != -1 && !forms.matches(index, canonical)) {
+                    // a different puzzle has this hash, both are kept
+                    collisions++;
+                    hash = hash * 0x9E3779B97F4A7C15L + 1;
+                }
+                if (index == -1) {
+                    seen.put(hash, forms.add(canonical));
+                    writer.write(digits, reader.getLabel());
+                }
+
+                long now = System.currentTimeMillis();
+                if (now - lastProgress >= PROGRESS_INTERVAL_MILLIS) {
+                    lastProgress = now;
+                    printProgress(read, seen.size(), startTime);
+                }
+            }
+        } finally {
+            reader.close();
+            writer.close();
+            forms.close();
+        }
+        printProgress(read, seen.size(), startTime);
+        System.err.println(String.format(", %d duplicates dropped, %d hash collisions",
+                read - seen.size(), collisions));
+    }
+
+    private static void printProgress(long read, long unique, long startTime) {
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+        System.err.print(String.format("\r%d puzzles read, %d unique, %.1f puzzles/s", read, unique, read / seconds));
+    }
+}
@@ -0,0 +1,188 @@
+package com.jon.sudoku.cli;
+
+import com.jon.sudoku.SolverStats;
+import com.jon.sudoku.Solvers;
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Builds a puzzle pack from the command line, generating and grading puzzles on
+ * every core. Each line of the pack is a puzzle as 81 digits (0 for empty squares),
+ * a space and its graded difficulty. Lines are written as workers finish them, so
+ * their order changes from run to run even with the same seed.
+ * <p>
+ * Usage: GeneratePack [--count n] [--difficulty 0|1|2|all] [--threads n] [--seed n]
+ *                     [--solver bitboard|dlx|backtracking] [--stats true] [--out file]
+ */
+public class GeneratePack {
+
+    // Batches waiting to be written before workers have to wait
+    private static final int QUEUE_BATCHES = 256;
+
+    private static final long PROGRESS_INTERVAL_MILLIS = 1000;
+
+    private long count = 1000;
+    private int difficulty = -1;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private long seed = System.nanoTime();
+    private String solver = Solvers.DEFAULT;
+    private boolean stats;
+    private String out = "-";
+
+    public static void main(String[] args) throws Exception {
+        GeneratePack pack = new GeneratePack();
+        try {
+            pack.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: GeneratePack [--count n] [--difficulty 0|1|2|all] [--threads n] [--seed n]"
+                    + " [--solver bitboard|dlx|backtracking] [--stats true] [--out file]");
+            System.exit(1);
+        }
+        pack.run();
+    }
+
+    private void parse(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if (i + 1 == args.length) {
+                throw new IllegalArgumentException("Missing value for " + option);
+            }
+            String value = args[++i];
+            switch (option) {
+                case "--count":
+                    count = Long.parseLong(value);
+                    break;
+                case "--difficulty":
+                    difficulty = value.equals("all") ? -1 : Integer.parseInt(value);
+                    if (difficulty < -1 || difficulty > 2) {
+                        throw new IllegalArgumentException("Unknown difficulty: " + value);
+                    }
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(value);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(value);
+                    break;
+                case "--solver":
+                    Solvers.create(value);
+                    solver = value;
+                    break;
+                case "--stats":
+                    stats = Boolean.parseBoolean(value);
+                    break;
+                case "--out":
+                    out = value;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + option);
+            }
+        }
+        if (count < 0 || threads < 1) {
+            throw new IllegalArgumentException("Count and threads must be positive");
+        }
+    }
+
+    private void run() throws Exception {
+        BlockingQueue<PackWorker.Batch> queue = new ArrayBlockingQueue<>(QUEUE_BATCHES);
+        AtomicLong next = new AtomicLong();
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                // a worker busy generating doesn't keep a failed run alive
+                Thread thread = new Thread(runnable, "PackWorker");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        List<Future<Void>> workers = new ArrayList<>();
+        SolverStats[] workerStats = new SolverStats[threads];
+        for (int i = 0; i < threads; i++) {
+            workerStats[i] = stats ? new SolverStats() : null;
+            // spread the seeds so no two workers make the same puzzles
+            long workerSeed = seed + i * 0x9E3779B97F4A7C15L;
+            workers.add(pool.submit(new PackWorker(next, count, difficulty, solver, workerSeed, queue, workerStats[i])));
+        }
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(
+                out.equals("-") ? System.out : new FileOutputStream(out), StandardCharsets.US_ASCII), 1 << 16);
+        long startTime = System.nanoTime();
+        long lastProgress = System.currentTimeMillis();
+        long written = 0;
+        try {
+            while (written < count) {
+                PackWorker.Batch batch = queue.poll(PROGRESS_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                if (batch != null) {
+                    writer.write(batch.chars, 0, batch.chars.length);
+                    written += batch.puzzles;
+                } else {
+                    checkWorkers(workers);
+                }
+
+                long now = System.currentTimeMillis();
+                if (now - lastProgress >= PROGRESS_INTERVAL_MILLIS) {
+                    lastProgress = now;
+                    printProgress(written, startTime, false);
+                }
+            }
+        } finally {
+            writer.flush();
+            if (!out.equals("-")) {
+                writer.close();
+            }
+            pool.shutdownNow();
+        }
+        printProgress(written, startTime, true);
+
+        if (stats) {
+            // workers are done with their stats once every puzzle is written
+            SolverStats total = new SolverStats();
+            for (SolverStats worker : workerStats) {
+                total.add(worker);
+            }
+            System.err.print(total);
+        }
+    }
+
+    /**
+     * Fails the run if a worker died, otherwise the writer would wait forever
+     */
+    private static void checkWorkers(List<Future<Void>> workers) throws IOException, InterruptedException {
+        for (Future<Void> worker : workers) {
+            if (worker.isDone()) {
+                try {
+                    worker.get();
+                } catch (ExecutionException e) {
+                    throw new IOException("Worker failed", e.getCause());
+                }
+            }
+        }
+    }
+
+    private void printProgress(long written, long startTime, boolean done) {
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+        System.err.print(String.format("\r%d/%d puzzles, %.1f puzzles/s on %d threads",
+                written, count, written / seconds, threads));
+        if (done) {
+            System.err.println(String.format(" (%.1f s)", seconds));
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.jon.sudoku.cli;
+
+import com.jon.sudoku.Board;
+import com.jon.sudoku.PuzzleGenerator;
+import com.jon.sudoku.SolverStats;
+import com.jon.sudoku.Solvers;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates and grades puzzles on one thread of the pool. Workers never split
+ * their work, so they run on a plain fixed pool and may block handing batches over.
+ * Workers claim puzzles a batch at a time from a shared counter, so a worker that
+ * gets quick puzzles just claims more, and each one has its own generator and
+ * random numbers. Finished batches are handed to the writer as lines of text,
+ * with the difficulty the generator graded each puzzle at.
+ */
+class PackWorker implements Callable<Void> {
+
+    // Puzzles claimed and handed to the writer at a time
+    static final int BATCH_SIZE = 64;
+
+    // 81 digits, a space, the graded difficulty and a newline
+    static final int LINE_LENGTH = Board.CELLS + 3;
+
+    /**
+     * Lines of finished puzzles
+     */
+    static class Batch {
+        final char[] chars;
+        final int puzzles;
+
+        Batch(char[] chars, int puzzles) {
+            this.chars = chars;
+            this.puzzles = puzzles;
+        }
+    }
+
+    private final AtomicLong next;
+    private final long count;
+    private final int difficulty;
+    private final String solver;
+    private final long seed;
+    private final BlockingQueue<Batch> output;
+
+    // This worker's own stats, null when not collected
+    private final SolverStats stats;
+
+    /**
+     * @param next       index of the next puzzle to claim, shared by all workers
+     * @param count      puzzles to generate in total
+     * @param difficulty 0 = easy, 1 = medium, 2 = hard, -1 to cycle through all three
+     * @param solver     name of the solver backend, see {@link Solvers}
+     * @param seed       seed of this worker's generator
+     * @param output     queue the finished batches are put on
+     * @param stats      stats for this worker alone, or null
+     */
+    PackWorker(AtomicLong next, long count, int difficulty, String solver, long seed, BlockingQueue<Batch> output,
+               SolverStats stats) {
+        this.next = next;
+        this.count = count;
+        this.difficulty = difficulty;
+        this.solver = solver;
+        this.seed = seed;
+        this.output = output;
+        this.stats = stats;
+    }
+
+    @Override
+    public Void call() {
+        PuzzleGenerator generator = new PuzzleGenerator(Solvers.create(solver), seed);
+        generator.setStats(stats);
+
+        long start;
+        while ((start = next.getAndAdd(BATCH_SIZE)) < count) {
+            int puzzles = (int) Math.min(BATCH_SIZE, count - start);
+            char[] chars = new char[puzzles * LINE_LENGTH];
+            for (int i = 0; i < puzzles; i++) {
+                int target = difficulty >= 0 ? difficulty : (int) ((start + i) % 3);
+                Board puzzle = generator.generate(target);
+                writeLine(puzzle, generator.getGradedDifficulty(), chars, i * LINE_LENGTH);
+            }
+
+            try {
+                output.put(new Batch(chars, puzzles));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private static void writeLine(Board puzzle, int difficulty, char[] chars, int offset) {
+        for (int cell = 0; cell < Board.CELLS; cell++) {
+            chars[offset + cell] = (char) ('0' + puzzle.get(cell));
+        }
+        chars[offset + Board.CELLS] = ' ';
+        chars[offset + Board.CELLS + 1] = (char) ('0' + difficulty);
+        chars[offset + Board.CELLS + 2] = '\n';
+    }
+}
@@ -0,0 +1,198 @@
+package com.jon.sudoku;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs slow work such as solves, uniqueness checks and hint searches on a single
+ * background thread and hands the results back through a delivery executor, the
+ * UI thread in the app.
+ * <p>
+ * Every task has a key, and submitting a task supersedes the earlier one with the
+ * same key: if it hasn't started it never runs, if it is running its thread is
+ * interrupted, and either way its result is dropped. A burst of taps therefore
+ * only runs the newest request. Work that doesn't check for interruption runs to
+ * the end, but nothing is delivered for it. Submitting and cancelling only touch a
+ * queue and a map, so the UI thread never waits for the worker.
+ * <p>
+ * Work queued with {@link #execute(Runnable)} has no key and is never cancelled,
+ * so saving on the way out still happens after {@link #shutdown()}.
+ */
+public class BackgroundTasks {
+
+    /**
+     * Receives the result of a task on the delivery executor
+     *
+     * @param <T> type of the result
+     */
+    public abstract static class Callback<T> {
+
+        public abstract void onResult(T result);
+
+        /**
+         * Called instead of onResult when the task threw.
+         * Rethrows by default so a failing task fails as loudly as it would have on the UI thread.
+         *
+         * @param e
+         */
+        public void onError(Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private final ExecutorService worker;
+    private final Executor delivery;
+
+    // Newest task of each key, removed once delivered or cancelled
+    private final ConcurrentMap<String, Task<?>> current = new ConcurrentHashMap<>();
+
+    /**
+     * @param delivery runs the callbacks, the UI thread's handler in the app
+     */
+    public BackgroundTasks(Executor delivery) {
+        this.delivery = delivery;
+        worker = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "BackgroundTasks");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Queues work on the background thread, superseding any task with the same key
+     *
+     * @param key      what the task is for, such as "hint"
+     * @param work     runs on the background thread, it must not touch state the UI thread changes
+     * @param callback gets the result on the delivery executor
+     * @param <T>      type of the result
+     */
+    public <T> void submit(String key, Callable<T> work, Callback<T> callback) {
+        Task<T> task = new Task<>(key, work, callback);
+        Task<?> previous = current.put(key, task);
+        if (previous != null) {
+            previous.cancel();
+        }
+        task.future = worker.submit(task);
+    }
+
+    /**
+     * Drops the task with the key, interrupting it if it is running
+     *
+     * @param key
+     */
+    public void cancel(String key) {
+        Task<?> task = current.remove(key);
+        if (task != null) {
+            task.cancel();
+        }
+    }
+
+    /**
+     * @param key
+     * @return true if a task with the key is queued, running or waiting to be delivered
+     */
+    public boolean isPending(String key) {
+        return current.containsKey(key);
+    }
+
+    /**
+     * Queues work that nothing supersedes or cancels, such as saving a file.
+     * Nothing is delivered, the work handles its own errors.
+     *
+     * @param work runs on the background thread after the tasks queued before it
+     */
+    public void execute(Runnable work) {
+        worker.execute(work);
+    }
+
+    /**
+     * Cancels every keyed task, then stops the background thread once the work
+     * queued with {@link #execute(Runnable)} has run
+     */
+    public void shutdown() {
+        for (String key : current.keySet()) {
+            cancel(key);
+        }
+        worker.shutdown();
+    }
+
+    /**
+     * Waits for the background thread to stop after {@link #shutdown()}
+     *
+     * @param timeout
+     * @param unit
+     * @return false if the thread was still running when the time ran out
+     * @throws InterruptedException
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return worker.awaitTermination(timeout, unit);
+    }
+
+    private class Task<T> implements Runnable {
+        private final String key;
+        private final Callable<T> work;
+        private final Callback<T> callback;
+
+        // Set straight after submitting, the task may already be running by then
+        volatile Future<?> future;
+
+        Task(String key, Callable<T> work, Callback<T> callback) {
+            this.key = key;
+            this.work = work;
+            this.callback = callback;
+        }
+
+        @Override
+        public void run() {
+            if (current.get(key) != this) {
+                return;
+            }
+
+            T result = null;
+            Exception error = null;
+            try {
+                result = work.call();
+            } catch (Exception e) {
+                error = e;
+            }
+
+            if (!Thread.currentThread().isInterrupted() && current.get(key) == this) {
+                deliver(result, error);
+            }
+        }
+
+        private void deliver(final T result, final Exception error) {
+            delivery.execute(new Runnable() {
+                @Override
+                public void run() {
+                    // claim the key, a task submitted or cancelled since finishing isn't delivered
+                    if (!current.remove(key, Task.this)) {
+                        return;
+                    }
+                    if (error != null) {
+                        callback.onError(error);
+                    } else {
+                        callback.onResult(result);
+                    }
+                }
+            });
+        }
+
+        void cancel() {
+            Future<?> running = future;
+            if (running != null) {
+                running.cancel(true);
+            }
+        }
+    }
+}
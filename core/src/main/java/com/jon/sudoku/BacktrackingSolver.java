@@ -0,0 +1,134 @@
+package com.jon.sudoku;
+
+/**
+ * Depth first search solver. Each step fills the empty cell with the fewest
+ * candidates, which are read straight from the row, column and box bitmasks.
+ * Only solves 9x9 boards.
+ */
+public class BacktrackingSolver implements Solver {
+
+    // Bits 1-9 set
+    private static final int ALL_DIGITS = 0x3FE;
+
+    private final byte[] cells = new byte[Board.CELLS];
+    private final int[] rowMasks = new int[Board.SIZE];
+    private final int[] columnMasks = new int[Board.SIZE];
+    private final int[] boxMasks = new int[Board.SIZE];
+
+    private int limit;
+    private int count;
+    private byte[] solution;
+
+    private SolverStats stats;
+
+    @Override
+    public int countSolutions(Board board, int limit) {
+        return run(board, limit, null);
+    }
+
+    @Override
+    public boolean solve(Board board, byte[] solution) {
+        return run(board, 1, solution) > 0;
+    }
+
+    @Override
+    public void setStats(SolverStats stats) {
+        this.stats = stats;
+    }
+
+    private int run(Board board, int limit, byte[] solution) {
+        long start = stats != null ? System.nanoTime() : 0;
+        this.limit = limit;
+        this.solution = solution;
+        count = 0;
+        if (load(board)) {
+            search();
+        }
+        this.solution = null;
+        if (stats != null) {
+            stats.recordSolve(System.nanoTime() - start);
+        }
+        return count;
+    }
+
+    /**
+     * Copies the board into the working arrays
+     *
+     * @return false if the board has conflicting digits
+     */
+    private boolean load(Board board) {
+        if (!board.getGeometry().equals(Geometry.STANDARD)) {
+            throw new IllegalArgumentException("Only 9x9 boards are supported, not " + board.getGeometry());
+        }
+        for (int i = 0; i < Board.SIZE; i++) {
+            rowMasks[i] = board.rowMask(i);
+            columnMasks[i] = board.columnMask(i);
+            boxMasks[i] = board.boxMask(i);
+        }
+        for (int cell = 0; cell < Board.CELLS; cell++) {
+            cells[cell] = (byte) board.get(cell);
+            if (board.isConflicting(cell)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void search() {
+        if (stats != null) {
+            stats.nodes++;
+        }
+
+        // find the empty cell with the fewest candidates
+        int best = -1;
+        int bestCandidates = 0;
+        int bestCount = Board.SIZE + 1;
+        for (int cell = 0; cell < Board.CELLS; cell++) {
+            if (cells[cell] != 0) {
+                continue;
+            }
+            int candidates = ~(rowMasks[Board.row(cell)] | columnMasks[Board.column(cell)]
+                    | boxMasks[Board.box(cell)]) & ALL_DIGITS;
+            int candidateCount = Integer.bitCount(candidates);
+            if (candidateCount < bestCount) {
+                best = cell;
+                bestCandidates = candidates;
+                bestCount = candidateCount;
+                if (candidateCount <= 1) {
+                    break;
+                }
+            }
+        }
+
+        // every cell is filled so this is a solution
+        if (best == -1) {
+            if (count++ == 0 && solution != null) {
+                System.arraycopy(cells, 0, solution, 0, Board.CELLS);
+            }
+            return;
+        }
+        if (bestCandidates == 0 && stats != null) {
+            stats.backtracks++;
+        }
+
+        int row = Board.row(best);
+        int column = Board.column(best);
+        int box = Board.box(best);
+        while (bestCandidates != 0 && count < limit) {
+            int bit = bestCandidates & -bestCandidates;
+            bestCandidates ^= bit;
+
+            cells[best] = (byte) Integer.numberOfTrailingZeros(bit);
+            rowMasks[row] |= bit;
+            columnMasks[column] |= bit;
+            boxMasks[box] |= bit;
+
+            search();
+
+            rowMasks[row] &= ~bit;
+            columnMasks[column] &= ~bit;
+            boxMasks[box] &= ~bit;
+        }
+        cells[best] = 0;
+    }
+}
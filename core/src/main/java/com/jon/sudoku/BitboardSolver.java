@@ -0,0 +1,312 @@
+package com.jon.sudoku;
+
+/**
+ * Fast solver keeping the grid as bitboards.
+ * <p>
+ * Each digit has an 81 bit plane of the cells it can still go in, packed into a
+ * pair of longs: cells 0-63 in the low long and cells 64-80 in the high one. A
+ * solved cell keeps its bit only in its own digit's plane. Propagation works a
+ * whole plane at a time with bitwise ops: naked singles are the cells in exactly
+ * one plane, hidden singles are units holding a single bit of a plane. When
+ * neither applies the search branches on the unsolved cell with the fewest
+ * candidates. States for every level of the search are preallocated, so solving
+ * doesn't allocate. The planes only fit 9x9 boards.
+ */
+public class BitboardSolver implements Solver {
+
+    // Longs in a state: two per digit plane, then two for the unsolved cells
+    private static final int UNSOLVED = 2 * Board.SIZE;
+    private static final int STATE_SIZE = UNSOLVED + 2;
+
+    private static final long ALL_LOW = -1L;
+    private static final long ALL_HIGH = (1L << (Board.CELLS - 64)) - 1;
+
+    private static final int UNITS = 3 * Board.SIZE;
+
+    // Peers of each cell, and the cells of each unit, as low and high longs
+    private static final long[] PEERS = new long[2 * Board.CELLS];
+    private static final long[] UNIT_CELLS = new long[2 * UNITS];
+
+    static {
+        for (int unit = 0; unit < UNITS; unit++) {
+            for (int cell : Geometry.STANDARD.unit(unit)) {
+                setBit(UNIT_CELLS, 2 * unit, cell);
+            }
+        }
+        for (int cell = 0; cell < Board.CELLS; cell++) {
+            for (int peer : Geometry.STANDARD.peers(cell)) {
+                setBit(PEERS, 2 * cell, peer);
+            }
+        }
+    }
+
+    // One state per search level, the search makes at most one guess per cell
+    private final long[] states = new long[(Board.CELLS + 1) * STATE_SIZE];
+
+    private int limit;
+    private int count;
+    private byte[] solution;
+
+    private SolverStats stats;
+
+    @Override
+    public int countSolutions(Board board, int limit) {
+        return run(board, limit, null);
+    }
+
+    @Override
+    public boolean solve(Board board, byte[] solution) {
+        return run(board, 1, solution) == 1;
+    }
+
+    @Override
+    public void setStats(SolverStats stats) {
+        this.stats = stats;
+    }
+
+    private int run(Board board, int limit, byte[] solution) {
+        long start = stats != null ? System.nanoTime() : 0;
+        int found = propagateAndSearch(board, limit, solution);
+        if (stats != null) {
+            stats.recordSolve(System.nanoTime() - start);
+        }
+        return found;
+    }
+
+    private int propagateAndSearch(Board board, int limit, byte[] solution) {
+        if (!board.getGeometry().equals(Geometry.STANDARD)) {
+            throw new IllegalArgumentException("Only 9x9 boards are supported, not " + board.getGeometry());
+        }
+        this.limit = limit;
+        this.solution = solution;
+        count = 0;
+
+        for (int i = 0; i < UNSOLVED; i += 2) {
+            states[i] = ALL_LOW;
+            states[i + 1] = ALL_HIGH;
+        }
+        states[UNSOLVED] = ALL_LOW;
+        states[UNSOLVED + 1] = ALL_HIGH;
+        for (int cell = 0; cell < Board.CELLS; cell++) {
+            int digit = board.get(cell);
+            // a given that is no longer a candidate conflicts with an earlier one
+            if (digit != 0) {
+                if (!hasBit(states, 2 * (digit - 1), cell)) {
+                    return 0;
+                }
+                place(0, cell, digit - 1);
+            }
+        }
+
+        if (limit > 0) {
+            search(0);
+        }
+        return count;
+    }
+
+    private void search(int depth) {
+        int state = depth * STATE_SIZE;
+        if (stats != null) {
+            stats.nodes++;
+        }
+        if (!propagate(state)) {
+            if (stats != null) {
+                stats.backtracks++;
+            }
+            return;
+        }
+
+        long unsolvedLow = states[state + UNSOLVED];
+        long unsolvedHigh = states[state + UNSOLVED + 1];
+        if (unsolvedLow == 0 && unsolvedHigh == 0) {
+            if (count == 0 && solution != null) {
+                readSolution(state);
+            }
+            count++;
+            return;
+        }
+
+        int cell = mostConstrained(state);
+        int next = state + STATE_SIZE;
+        for (int digit = 0; digit < Board.SIZE && count < limit; digit++) {
+            if (hasBit(states, state + 2 * digit, cell)) {
+                System.arraycopy(states, state, states, next, STATE_SIZE);
+                place(next, cell, digit);
+                search(depth + 1);
+            }
+        }
+    }
+
+    /**
+     * Places naked and hidden singles until none are left
+     *
+     * @return false if a cell or unit ran out of candidates
+     */
+    private boolean propagate(int state) {
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+
+            // cells in at least one and at least two planes
+            long oneLow = 0;
+            long oneHigh = 0;
+            long twoLow = 0;
+            long twoHigh = 0;
+            for (int plane = state; plane < state + UNSOLVED; plane += 2) {
+                twoLow |= oneLow & states[plane];
+                twoHigh |= oneHigh & states[plane + 1];
+                oneLow |= states[plane];
+                oneHigh |= states[plane + 1];
+            }
+            long unsolvedLow = states[state + UNSOLVED];
+            long unsolvedHigh = states[state + UNSOLVED + 1];
+            if ((unsolvedLow & ~oneLow) != 0 || (unsolvedHigh & ~oneHigh) != 0) {
+                return false;
+            }
+
+            // naked singles
+            long singles = oneLow & ~twoLow & unsolvedLow;
+            while (singles != 0) {
+                int cell = Long.numberOfTrailingZeros(singles);
+                singles &= singles - 1;
+                if (!placeSingle(state, cell)) {
+                    return false;
+                }
+                changed = true;
+            }
+            singles = oneHigh & ~twoHigh & unsolvedHigh;
+            while (singles != 0) {
+                int cell = 64 + Long.numberOfTrailingZeros(singles);
+                singles &= singles - 1;
+                if (!placeSingle(state, cell)) {
+                    return false;
+                }
+                changed = true;
+            }
+            if (changed) {
+                continue;
+            }
+
+            // hidden singles
+            for (int digit = 0; digit < Board.SIZE; digit++) {
+                int plane = state + 2 * digit;
+                for (int unit = 0; unit < 2 * UNITS; unit += 2) {
+                    long low = states[plane] & UNIT_CELLS[unit];
+                    long high = states[plane + 1] & UNIT_CELLS[unit + 1];
+                    if (low == 0 && high == 0) {
+                        return false;
+                    }
+                    int cell;
+                    if (high == 0 && (low & (low - 1)) == 0) {
+                        cell = Long.numberOfTrailingZeros(low);
+                    } else if (low == 0 && (high & (high - 1)) == 0) {
+                        cell = 64 + Long.numberOfTrailingZeros(high);
+                    } else {
+                        continue;
+                    }
+                    if (hasBit(states, state + UNSOLVED, cell)) {
+                        place(state, cell, digit);
+                        if (stats != null) {
+                            stats.propagations++;
+                        }
+                        changed = true;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Places the only candidate left in a cell
+     */
+    private boolean placeSingle(int state, int cell) {
+        for (int digit = 0; digit < Board.SIZE; digit++) {
+            if (hasBit(states, state + 2 * digit, cell)) {
+                place(state, cell, digit);
+                if (stats != null) {
+                    stats.propagations++;
+                }
+                return true;
+            }
+        }
+        // an earlier single in this pass took the last candidate
+        return false;
+    }
+
+    /**
+     * Puts a digit in a cell, removing the cell from the other planes and the
+     * digit from the cell's peers. The digit must still be a candidate of the cell.
+     */
+    private void place(int state, int cell, int digit) {
+        int peers = 2 * cell;
+        int plane = state + 2 * digit;
+        long low = cell < 64 ? ~(1L << cell) : ALL_LOW;
+        long high = cell < 64 ? ALL_LOW : ~(1L << (cell - 64));
+        for (int other = state; other < state + UNSOLVED; other += 2) {
+            if (other != plane) {
+                states[other] &= low;
+                states[other + 1] &= high;
+            }
+        }
+        states[plane] &= ~PEERS[peers];
+        states[plane + 1] &= ~PEERS[peers + 1];
+        states[state + UNSOLVED] &= low;
+        states[state + UNSOLVED + 1] &= high;
+    }
+
+    /**
+     * Picks the unsolved cell in the fewest planes, stopping early at two
+     */
+    private int mostConstrained(int state) {
+        int best = -1;
+        int bestCount = Board.SIZE + 1;
+        for (int half = 0; half < 2; half++) {
+            long unsolved = states[state + UNSOLVED + half];
+            while (unsolved != 0) {
+                int bit = Long.numberOfTrailingZeros(unsolved);
+                unsolved &= unsolved - 1;
+                long mask = 1L << bit;
+                int candidates = 0;
+                for (int plane = state + half; plane < state + UNSOLVED; plane += 2) {
+                    if ((states[plane] & mask) != 0) {
+                        candidates++;
+                    }
+                }
+                if (candidates < bestCount) {
+                    best = half * 64 + bit;
+                    bestCount = candidates;
+                    if (candidates == 2) {
+                        return best;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    private void readSolution(int state) {
+        for (int cell = 0; cell < Board.CELLS; cell++) {
+            for (int digit = 0; digit < Board.SIZE; digit++) {
+                if (hasBit(states, state + 2 * digit, cell)) {
+                    solution[cell] = (byte) (digit + 1);
+                    break;
+                }
+            }
+        }
+    }
+
+    private static boolean hasBit(long[] bits, int offset, int cell) {
+        return cell < 64
+                ? (bits[offset] & (1L << cell)) != 0
+                : (bits[offset + 1] & (1L << (cell - 64))) != 0;
+    }
+
+    private static void setBit(long[] bits, int offset, int cell) {
+        if (cell < 64) {
+            bits[offset] |= 1L << cell;
+        } else {
+            bits[offset + 1] |= 1L << (cell - 64);
+        }
+    }
+}
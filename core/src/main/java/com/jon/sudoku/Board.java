@@ -0,0 +1,394 @@
+package com.jon.sudoku;
+
+/**
+ * UI independent model of the sudoku grid.
+ * Digits are kept in a flat array indexed by cell (row * size + column) and every
+ * row, column and box keeps a bitmask of the digits it contains, so each move
+ * only updates the three units it touches instead of rescanning the grid.
+ * <p>
+ * Boards of any {@link Geometry} are supported. The static constants and helpers
+ * describe the standard 9x9 grid, which is the only one the game screen, saved
+ * games, candidates, hint engine and the bitboard and backtracking solvers handle.
+ */
+public class Board {
+
+    public static final int SIZE = 9;
+    public static final int BOX_SIZE = 3;
+    public static final int CELLS = SIZE * SIZE;
+
+    private final Geometry geometry;
+    private final int size;
+
+    // Digit held by each cell, 0 when the cell is empty
+    private final byte[] cells;
+
+    // True for the cells given by the puzzle
+    private final boolean[] given;
+
+    // Bit d is set when digit d appears at least once in the unit
+    private final int[] rowMasks;
+    private final int[] columnMasks;
+    private final int[] boxMasks;
+
+    // Number of times each digit appears in each unit, indexed by unit * (size + 1) + digit
+    private final byte[] rowCounts;
+    private final byte[] columnCounts;
+    private final byte[] boxCounts;
+
+    // Number of cells holding a digit
+    private int filled;
+
+    // Extra copies of digits across all units, 0 when nothing conflicts
+    private int repeats;
+
+    /**
+     * Creates an empty 9x9 board
+     */
+    public Board() {
+        this(Geometry.STANDARD);
+    }
+
+    /**
+     * Creates an empty board
+     *
+     * @param geometry
+     */
+    public Board(Geometry geometry) {
+        this.geometry = geometry;
+        size = geometry.getSize();
+        cells = new byte[geometry.getCells()];
+        given = new boolean[geometry.getCells()];
+        rowMasks = new int[size];
+        columnMasks = new int[size];
+        boxMasks = new int[size];
+        rowCounts = new byte[size * (size + 1)];
+        columnCounts = new byte[size * (size + 1)];
+        boxCounts = new byte[size * (size + 1)];
+    }
+
+    /**
+     * Creates a copy of a board, givens included, for use on another thread
+     *
+     * @param other
+     */
+    public Board(Board other) {
+        geometry = other.geometry;
+        size = other.size;
+        cells = other.cells.clone();
+        given = other.given.clone();
+        rowMasks = other.rowMasks.clone();
+        columnMasks = other.columnMasks.clone();
+        boxMasks = other.boxMasks.clone();
+        rowCounts = other.rowCounts.clone();
+        columnCounts = other.columnCounts.clone();
+        boxCounts = other.boxCounts.clone();
+        filled = other.filled;
+        repeats = other.repeats;
+    }
+
+    /**
+     * Creates a 9x9 board holding the given puzzle digits
+     *
+     * @param puzzle 9x9 array of digits, 0 for empty squares
+     */
+    public Board(int[][] puzzle) {
+        this(Geometry.STANDARD, puzzle);
+    }
+
+    /**
+     * Creates a board holding the given puzzle digits
+     *
+     * @param geometry
+     * @param puzzle   square array of digits, 0 for empty squares
+     */
+    public Board(Geometry geometry, int[][] puzzle) {
+        this(geometry);
+        for (int row = 0; row < size; row++) {
+            for (int column = 0; column < size; column++) {
+                int digit = puzzle[row][column];
+                if (digit != 0) {
+                    int cell = geometry.cell(row, column);
+                    place(cell, digit);
+                    given[cell] = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates a 9x9 board holding the given puzzle digits
+     *
+     * @param digits 81 digits indexed by cell, 0 for empty squares
+     */
+    public Board(byte[] digits) {
+        this(Geometry.STANDARD, digits);
+    }
+
+    /**
+     * Creates a board holding the given puzzle digits
+     *
+     * @param geometry
+     * @param digits   a digit for each cell, 0 for empty squares
+     */
+    public Board(Geometry geometry, byte[] digits) {
+        this(geometry);
+        for (int cell = 0; cell < cells.length; cell++) {
+            if (digits[cell] != 0) {
+                place(cell, digits[cell]);
+                given[cell] = true;
+            }
+        }
+    }
+
+    // Positions on the 9x9 grid, looked up in the standard geometry's tables,
+    // boards of other sizes use their own geometry
+    public static int cell(int row, int column) {
+        return row * SIZE + column;
+    }
+
+    public static int row(int cell) {
+        return Geometry.STANDARD.row(cell);
+    }
+
+    public static int column(int cell) {
+        return Geometry.STANDARD.column(cell);
+    }
+
+    public static int box(int cell) {
+        return Geometry.STANDARD.box(cell);
+    }
+
+    public Geometry getGeometry() {
+        return geometry;
+    }
+
+    /**
+     * @param cell
+     * @return the digit in the cell, 0 when empty
+     */
+    public int get(int cell) {
+        return cells[cell];
+    }
+
+    /**
+     * @param cell
+     * @return true if the cell was given by the puzzle
+     */
+    public boolean isGiven(int cell) {
+        return given[cell];
+    }
+
+    /**
+     * Puts a digit in a cell, replacing whatever was there.
+     * Only the row, column and box of the cell are updated.
+     *
+     * @param cell
+     * @param digit 1 to the board size, or 0 to clear the cell
+     */
+    public void set(int cell, int digit) {
+        if (digit < 0 || digit > size) {
+            throw new IllegalArgumentException("Digit out of range: " + digit);
+        }
+        if (given[cell]) {
+            throw new IllegalStateException("Cannot change given cell " + cell);
+        }
+        if (cells[cell] != 0) {
+            remove(cell);
+        }
+        if (digit != 0) {
+            place(cell, digit);
+        }
+    }
+
+    /**
+     * Puts a digit in a cell like {@link #set(int, int)} and collects the other
+     * cells whose conflict state flipped because of the move. Only the peers of
+     * the cell holding the old or new digit can be affected, so at most
+     * {@link Geometry#getPeerCount()} cells, 20 on a 9x9 board, are looked at.
+     *
+     * @param cell
+     * @param digit   1 to the board size, or 0 to clear the cell
+     * @param flipped array with room for every peer, the changed peers are written to it
+     * @return the number of cells written to flipped
+     */
+    public int set(int cell, int digit, int[] flipped) {
+        int oldDigit = cells[cell];
+
+        // note the peers that could change and their current state
+        int count = 0;
+        for (int peer : geometry.peers(cell)) {
+            count = addAffected(peer, oldDigit, digit, flipped, count);
+        }
+        // bit i is set when flipped[i] was conflicting, there are at most 64 peers
+        long wasConflicting = 0;
+        for (int i = 0; i < count; i++) {
+            if (isConflicting(flipped[i])) {
+                wasConflicting |= 1L << i;
+            }
+        }
+
+        set(cell, digit);
+
+        // keep only the cells that changed
+        int changed = 0;
+        for (int i = 0; i < count; i++) {
+            if (isConflicting(flipped[i]) != ((wasConflicting & (1L << i)) != 0)) {
+                flipped[changed++] = flipped[i];
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Adds a peer to the affected cells if it holds either digit of the move
+     */
+    private int addAffected(int peer, int oldDigit, int newDigit, int[] affected, int count) {
+        int digit = cells[peer];
+        if (digit != 0 && (digit == oldDigit || digit == newDigit)) {
+            affected[count++] = peer;
+        }
+        return count;
+    }
+
+    /**
+     * A cell is conflicting when its digit appears more than once
+     * in its row, column or box.
+     *
+     * @param cell
+     * @return true if the cell holds a repeated digit
+     */
+    public boolean isConflicting(int cell) {
+        int digit = cells[cell];
+        if (digit == 0) {
+            return false;
+        }
+        return rowCounts[geometry.row(cell) * (size + 1) + digit] > 1
+                || columnCounts[geometry.column(cell) * (size + 1) + digit] > 1
+                || boxCounts[geometry.box(cell) * (size + 1) + digit] > 1;
+    }
+
+    /**
+     * @param cell
+     * @param digit
+     * @return true if the digit is not already used in the row, column or box of the cell
+     */
+    public boolean canPlace(int cell, int digit) {
+        int bit = 1 << digit;
+        return ((rowMasks[geometry.row(cell)] | columnMasks[geometry.column(cell)] | boxMasks[geometry.box(cell)])
+                & bit) == 0;
+    }
+
+    /**
+     * @param row
+     * @return bitmask of the digits in the row, bit d set for digit d
+     */
+    public int rowMask(int row) {
+        return rowMasks[row];
+    }
+
+    /**
+     * @param column
+     * @return bitmask of the digits in the column, bit d set for digit d
+     */
+    public int columnMask(int column) {
+        return columnMasks[column];
+    }
+
+    /**
+     * @param box
+     * @return bitmask of the digits in the box, bit d set for digit d
+     */
+    public int boxMask(int box) {
+        return boxMasks[box];
+    }
+
+    /**
+     * @return number of cells holding a digit
+     */
+    public int getFilledCount() {
+        return filled;
+    }
+
+    /**
+     * Counts every digit beyond the first in each row, column and box,
+     * so a digit repeated once in a row and its box counts twice.
+     *
+     * @return 0 when no cell is conflicting
+     */
+    public int getConflictCount() {
+        return repeats;
+    }
+
+    /**
+     * @return true when every cell is filled and nothing conflicts
+     */
+    public boolean isSolved() {
+        return filled == cells.length && repeats == 0;
+    }
+
+    /**
+     * @return square array of the digits on the board, 0 for empty squares
+     */
+    public int[][] toArray() {
+        int[][] puzzle = new int[size][size];
+        for (int cell = 0; cell < cells.length; cell++) {
+            puzzle[geometry.row(cell)][geometry.column(cell)] = cells[cell];
+        }
+        return puzzle;
+    }
+
+    /**
+     * Adds a digit to an empty cell and its units
+     */
+    private void place(int cell, int digit) {
+        int row = geometry.row(cell);
+        int column = geometry.column(cell);
+        int box = geometry.box(cell);
+        int bit = 1 << digit;
+
+        cells[cell] = (byte) digit;
+        filled++;
+        if (rowCounts[row * (size + 1) + digit]++ > 0) {
+            repeats++;
+        }
+        if (columnCounts[column * (size + 1) + digit]++ > 0) {
+            repeats++;
+        }
+        if (boxCounts[box * (size + 1) + digit]++ > 0) {
+            repeats++;
+        }
+        rowMasks[row] |= bit;
+        columnMasks[column] |= bit;
+        boxMasks[box] |= bit;
+    }
+
+    /**
+     * Removes the digit in a cell from its units, clearing the mask bit
+     * once no other cell in the unit holds the digit
+     */
+    private void remove(int cell) {
+        int row = geometry.row(cell);
+        int column = geometry.column(cell);
+        int box = geometry.box(cell);
+        int digit = cells[cell];
+        int bit = 1 << digit;
+
+        cells[cell] = 0;
+        filled--;
+        if (--rowCounts[row * (size + 1) + digit] == 0) {
+            rowMasks[row] &= ~bit;
+        } else {
+            repeats--;
+        }
+        if (--columnCounts[column * (size + 1) + digit] == 0) {
+            columnMasks[column] &= ~bit;
+        } else {
+            repeats--;
+        }
+        if (--boxCounts[box * (size + 1) + digit] == 0) {
+            boxMasks[box] &= ~bit;
+        } else {
+            repeats--;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.jon.sudoku;
+
+/**
+ * Candidate digits (pencil marks) for every empty cell of a board.
+ * <p>
+ * The masks are worked out once, then kept up to date one move at a time: placing
+ * a digit removes it from the cell's 20 peers, and clearing one puts it back only
+ * in the peers where the board's row, column and box masks still allow it.
+ * Digits the player has ruled out are remembered separately and never come back
+ * on their own.
+ */
+public class Candidates {
+
+    // Bits 1-9 set
+    private static final int ALL_DIGITS = 0x3FE;
+
+    private final Board board;
+
+    // Candidates of each cell, bit d set for digit d, 0 for filled cells
+    private final int[] masks = new int[Board.CELLS];
+
+    // Digits the player has ruled out in each cell
+    private final int[] eliminated = new int[Board.CELLS];
+
+    /**
+     * Works out the candidates of every empty cell on the board
+     *
+     * @param board
+     */
+    public Candidates(Board board) {
+        this.board = board;
+        for (int cell = 0; cell < Board.CELLS; cell++) {
+            masks[cell] = allowed(cell);
+        }
+    }
+
+    /**
+     * Copies the candidates of another board onto a copy of that board
+     *
+     * @param board a copy of the other candidates' board
+     * @param other
+     */
+    public Candidates(Board board, Candidates other) {
+        this.board = board;
+        System.arraycopy(other.masks, 0, masks, 0, Board.CELLS);
+        System.arraycopy(other.eliminated, 0, eliminated, 0, Board.CELLS);
+    }
+
+    /**
+     * @param cell
+     * @return bitmask of the candidates, bit d set for digit d
+     */
+    public int get(int cell) {
+        return masks[cell];
+    }
+
+    /**
+     * @param cell
+     * @return bitmask of the digits the player ruled out in the cell
+     */
+    public int getEliminated(int cell) {
+        return eliminated[cell];
+    }
+
+    /**
+     * Sets the digits the player has ruled out in a cell
+     *
+     * @param cell
+     * @param mask bit d set to rule out digit d
+     */
+    public void setEliminated(int cell, int mask) {
+        eliminated[cell] = mask & ALL_DIGITS;
+        masks[cell] = allowed(cell);
+    }
+
+    /**
+     * Brings the candidates up to date after a move. Must be called once the
+     * board holds the new digit.
+     *
+     * @param cell
+     * @param oldDigit the digit the cell held before the move, 0 if empty
+     * @param newDigit the digit the cell holds now, 0 if cleared
+     * @param changed  array of at least 20 cells the peers whose candidates changed are written to
+     * @return the number of cells written to changed
+     */
+    public int update(int cell, int oldDigit, int newDigit, int[] changed) {
+        masks[cell] = allowed(cell);
+
+        int count = 0;
+        for (int peer : Geometry.STANDARD.peers(cell)) {
+            count = updatePeer(peer, oldDigit, newDigit, changed, count);
+        }
+        return count;
+    }
+
+    /**
+     * Puts the old digit back in a peer if it is still allowed there and removes the new one
+     */
+    private int updatePeer(int peer, int oldDigit, int newDigit, int[] changed, int count) {
+        if (board.get(peer) != 0) {
+            return count;
+        }
+
+        int mask = masks[peer];
+        if (oldDigit != 0 && board.canPlace(peer, oldDigit)) {
+            mask |= (1 << oldDigit) & ~eliminated[peer];
+        }
+        if (newDigit != 0) {
+            mask &= ~(1 << newDigit);
+        }
+
+        if (mask != masks[peer]) {
+            masks[peer] = mask;
+            changed[count++] = peer;
+        }
+        return count;
+    }
+
+    /**
+     * Digits not used in the cell's row, column or box and not ruled out by the player
+     */
+    private int allowed(int cell) {
+        if (board.get(cell) != 0) {
+            return 0;
+        }
+        return ~(board.rowMask(Board.row(cell)) | board.columnMask(Board.column(cell))
+                | board.boxMask(Board.box(cell)) | eliminated[cell]) & ALL_DIGITS;
+    }
+}
@@ -0,0 +1,392 @@
+package com.jon.sudoku;
+
+import java.util.Arrays;
+
+/**
+ * Works out a canonical form of a 9x9 puzzle, the same for every puzzle that is
+ * the same one in disguise.
+ * <p>
+ * Relabelling digits, swapping rows within a band, columns within a stack,
+ * whole bands, whole stacks and transposing give over a billion equivalent
+ * puzzles. The canonical form is the smallest of them: first by the positions of
+ * the clues read row by row, then by the digits once they are relabelled in the
+ * order they first appear. Rows are placed one level at a time, and only the
+ * arrangements whose clue pattern so far is the smallest of the level go on to
+ * the next, so digits are only compared between arrangements with the same clues.
+ * <p>
+ * Once the stacks are in order each stack's columns can be ordered on their own,
+ * so the column orders still in the running are kept as a stack order with the
+ * set of the six orders left for each stack. Those sets are bitmasks, and the
+ * smallest pattern of a row and the orders giving it are table lookups.
+ * <p>
+ * Keeps its working state between calls like the solvers, so one instance should
+ * only be used by one thread at a time.
+ */
+public class Canonicalizer {
+
+    private static final int SIZE = Board.SIZE;
+    private static final int PERMUTATIONS = 6;
+    private static final int ALL_ORDERS = (1 << PERMUTATIONS) - 1;
+    private static final int ALL_STACKS = ALL_ORDERS | ALL_ORDERS << PERMUTATIONS | ALL_ORDERS << 2 * PERMUTATIONS;
+
+    // The six orders of three things
+    private static final int[][] ORDERS = {{0, 1, 2}, {0, 2, 1}, {1, 0, 2}, {1, 2, 0}, {2, 0, 1}, {2, 1, 0}};
+
+    // For each 3 bit chunk of a row's clues and set of orders of its columns, the smallest
+    // chunk the orders give and the orders giving it, indexed by chunk << 6 | orders
+    private static final int[] SMALLEST_CHUNK = new int[8 << PERMUTATIONS];
+    private static final int[] SMALLEST_ORDERS = new int[8 << PERMUTATIONS];
+
+    static {
+        for (int chunk = 0; chunk < 8; chunk++) {
+            int[] permuted = new int[PERMUTATIONS];
+            for (int order = 0; order < PERMUTATIONS; order++) {
+                for (int k = 0; k < 3; k++) {
+                    permuted[order] = permuted[order] << 1 | (chunk >> (2 - ORDERS[order][k])) & 1;
+                }
+            }
+            for (int orders = 1; orders <= ALL_ORDERS; orders++) {
+                int smallest = Integer.MAX_VALUE;
+                int giving = 0;
+                for (int order = 0; order < PERMUTATIONS; order++) {
+                    if ((orders & 1 << order) == 0) {
+                        continue;
+                    }
+                    if (permuted[order] < smallest) {
+                        smallest = permuted[order];
+                        giving = 0;
+                    }
+                    if (permuted[order] == smallest) {
+                        giving |= 1 << order;
+                    }
+                }
+                SMALLEST_CHUNK[chunk << PERMUTATIONS | orders] = smallest;
+                SMALLEST_ORDERS[chunk << PERMUTATIONS | orders] = giving;
+            }
+        }
+    }
+
+    // The puzzle and its transpose
+    private final byte[][] grids = new byte[2][Board.CELLS];
+
+    // Clues of each row of each grid, the first column in the highest of 9 bits
+    private final int[][] rowClues = new int[2][SIZE];
+
+    // Arrangements still in the running at the current level: the grid, the source rows
+    // placed so far 4 bits each, and the column orders left. A column order is a stack
+    // order shifted up 18 with the orders left for each target stack in 6 bits each.
+    private int count;
+    private int[] grid = new int[64];
+    private long[] rows = new long[64];
+    private int[] columnOrders = new int[64 * PERMUTATIONS];
+    private int[] columnOrderCounts = new int[64];
+
+    // The arrangements of the next level, swapped with the ones above
+    private int nextCount;
+    private int[] nextGrid = new int[64];
+    private long[] nextRows = new long[64];
+    private int[] nextColumnOrders = new int[64 * PERMUTATIONS];
+    private int[] nextColumnOrderCounts = new int[64];
+
+    // Smallest pattern each arrangement can give each source row
+    private int[] rowPatterns = new int[64 * SIZE];
+
+    // Smallest relabelled clues so far, in the order of the clue cells
+    private final int[] clueCells = new int[Board.CELLS];
+    private int clueCount;
+    private final byte[] best = new byte[Board.CELLS];
+    private final byte[] candidate = new byte[Board.CELLS];
+    private boolean found;
+
+    // Digit each digit is relabelled to, the source rows and the source column of each target column
+    private final byte[] labels = new byte[SIZE + 1];
+    private final int[] sourceRows = new int[SIZE];
+    private final int[] columns = new int[SIZE];
+
+    /**
+     * Works out the canonical form of a puzzle
+     *
+     * @param digits 81 digits indexed by cell, 0 for empty squares
+     * @param out    array of 81 cells the canonical form is written to
+     */
+    public void canonicalize(byte[] digits, byte[] out) {
+        for (int cell = 0; cell < Board.CELLS; cell++) {
+            grids[0][cell] = digits[cell];
+            grids[1][Board.cell(Board.column(cell), Board.row(cell))] = digits[cell];
+        }
+        for (int g = 0; g < 2; g++) {
+            for (int row = 0; row < SIZE; row++) {
+                int clues = 0;
+                for (int column = 0; column < SIZE; column++) {
+                    clues = clues << 1 | (grids[g][Board.cell(row, column)] != 0 ? 1 : 0);
+                }
+                rowClues[g][row] = clues;
+            }
+        }
+
+        // both grids with nothing placed and every column order
+        count = 2;
+        for (int g = 0; g < 2; g++) {
+            grid[g] = g;
+            rows[g] = 0;
+            for (int stackOrder = 0; stackOrder < PERMUTATIONS; stackOrder++) {
+                columnOrders[g * PERMUTATIONS + stackOrder] = stackOrder << 3 * PERMUTATIONS | ALL_STACKS;
+            }
+            columnOrderCounts[g] = PERMUTATIONS;
+        }
+
+        clueCount = 0;
+        for (int level = 0; level < SIZE; level++) {
+            int pattern = placeRow(level);
+            for (int column = 0; column < SIZE; column++) {
+                if ((pattern >> (8 - column) & 1) != 0) {
+                    clueCells[clueCount++] = level * SIZE + column;
+                }
+            }
+        }
+
+        found = false;
+        for (int i = 0; i < count; i++) {
+            for (int level = 0; level < SIZE; level++) {
+                sourceRows[level] = rowAt(rows[i], level);
+            }
+            for (int j = 0; j < columnOrderCounts[i]; j++) {
+                compareDigits(grids[grid[i]], columnOrders[i * PERMUTATIONS + j]);
+            }
+        }
+
+        Arrays.fill(out, (byte) 0);
+        for (int i = 0; i < clueCount; i++) {
+            out[clueCells[i]] = best[i];
+        }
+    }
+
+    /**
+     * @param digits 81 digits indexed by cell, 0 for empty squares
+     * @return a 64 bit hash of the canonical form, equal for equivalent puzzles
+     */
+    public long hash(byte[] digits) {
+        canonicalize(digits, candidate);
+        return hashOf(candidate);
+    }
+
+    /**
+     * @param puzzle 9x9 array of digits as handed out by {@link GeneratePuzzle}
+     * @return a 64 bit hash of the canonical form, equal for equivalent puzzles
+     */
+    public long hash(int[][] puzzle) {
+        for (int cell = 0; cell < Board.CELLS; cell++) {
+            candidate[cell] = (byte) puzzle[Board.row(cell)][Board.column(cell)];
+        }
+        return hash(candidate);
+    }
+
+    /**
+     * FNV-1a over the cells, then mixed so every bit depends on every cell
+     *
+     * @param canonical a canonical form
+     * @return its hash
+     */
+    public static long hashOf(byte[] canonical) {
+        long hash = 0xCBF29CE484222325L;
+        for (int cell = 0; cell < Board.CELLS; cell++) {
+            hash = (hash ^ canonical[cell]) * 0x100000001B3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        return hash ^ hash >>> 33;
+    }
+
+    /**
+     * Places the row at a level in every arrangement, keeping the arrangements that
+     * give it the smallest pattern
+     *
+     * @return the smallest pattern
+     */
+    private int placeRow(int level) {
+        if (rowPatterns.length < count * SIZE) {
+            rowPatterns = new int[count * SIZE];
+        }
+        int smallest = Integer.MAX_VALUE;
+        for (int i = 0; i < count; i++) {
+            for (int row = 0; row < SIZE; row++) {
+                int rowPattern = Integer.MAX_VALUE;
+                if (canPlace(rows[i], level, row)) {
+                    int clues = rowClues[grid[i]][row];
+                    for (int j = 0; j < columnOrderCounts[i]; j++) {
+                        rowPattern = Math.min(rowPattern, pattern(clues, columnOrders[i * PERMUTATIONS + j]));
+                    }
+                }
+                rowPatterns[i * SIZE + row] = rowPattern;
+                smallest = Math.min(smallest, rowPattern);
+            }
+        }
+
+        nextCount = 0;
+        for (int i = 0; i < count; i++) {
+            for (int row = 0; row < SIZE; row++) {
+                if (rowPatterns[i * SIZE + row] != smallest) {
+                    continue;
+                }
+                int next = addNext(grid[i], rows[i] | (long) row << 4 * level);
+                int clues = rowClues[grid[i]][row];
+                int kept = 0;
+                for (int j = 0; j < columnOrderCounts[i]; j++) {
+                    int columnOrder = columnOrders[i * PERMUTATIONS + j];
+                    if (pattern(clues, columnOrder) == smallest) {
+                        nextColumnOrders[next * PERMUTATIONS + kept++] = keep(clues, columnOrder);
+                    }
+                }
+                nextColumnOrderCounts[next] = kept;
+            }
+        }
+        swap();
+        return smallest;
+    }
+
+    /**
+     * A new band starts every three rows, otherwise the row must be an unused one of the current band
+     */
+    private static boolean canPlace(long placed, int level, int row) {
+        if (level % 3 == 0) {
+            for (int i = 0; i < level; i += 3) {
+                if (rowAt(placed, i) / 3 == row / 3) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (rowAt(placed, level - 1) / 3 != row / 3) {
+            return false;
+        }
+        for (int i = level - level % 3; i < level; i++) {
+            if (rowAt(placed, i) == row) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int rowAt(long placed, int level) {
+        return (int) (placed >> 4 * level) & 15;
+    }
+
+    private int addNext(int g, long placed) {
+        if (nextCount == nextGrid.length) {
+            int capacity = nextCount * 2;
+            nextGrid = Arrays.copyOf(nextGrid, capacity);
+            nextRows = Arrays.copyOf(nextRows, capacity);
+            nextColumnOrders = Arrays.copyOf(nextColumnOrders, capacity * PERMUTATIONS);
+            nextColumnOrderCounts = Arrays.copyOf(nextColumnOrderCounts, capacity);
+        }
+        nextGrid[nextCount] = g;
+        nextRows[nextCount] = placed;
+        return nextCount++;
+    }
+
+    private void swap() {
+        int[] swapGrid = grid;
+        long[] swapRows = rows;
+        int[] swapOrders = columnOrders;
+        int[] swapCounts = columnOrderCounts;
+        grid = nextGrid;
+        rows = nextRows;
+        columnOrders = nextColumnOrders;
+        columnOrderCounts = nextColumnOrderCounts;
+        nextGrid = swapGrid;
+        nextRows = swapRows;
+        nextColumnOrders = swapOrders;
+        nextColumnOrderCounts = swapCounts;
+        count = nextCount;
+    }
+
+    /**
+     * Tries every column order left in a full arrangement of rows
+     */
+    private void compareDigits(byte[] digits, int columnOrder) {
+        int[] stacks = ORDERS[columnOrder >>> 3 * PERMUTATIONS];
+        for (int orders0 = columnOrder & ALL_ORDERS; orders0 != 0; orders0 &= orders0 - 1) {
+            setColumns(0, stacks[0], orders0);
+            for (int orders1 = columnOrder >> PERMUTATIONS & ALL_ORDERS; orders1 != 0; orders1 &= orders1 - 1) {
+                setColumns(1, stacks[1], orders1);
+                for (int orders2 = columnOrder >> 2 * PERMUTATIONS & ALL_ORDERS; orders2 != 0; orders2 &= orders2 - 1) {
+                    setColumns(2, stacks[2], orders2);
+                    compareDigits(digits);
+                }
+            }
+        }
+    }
+
+    /**
+     * Orders the columns of a target stack by the lowest order left in the set
+     */
+    private void setColumns(int stack, int source, int orders) {
+        int[] order = ORDERS[Integer.numberOfTrailingZeros(orders)];
+        for (int k = 0; k < 3; k++) {
+            columns[stack * 3 + k] = source * 3 + order[k];
+        }
+    }
+
+    /**
+     * Relabels the clues of a full arrangement and keeps them if they are the smallest yet
+     */
+    private void compareDigits(byte[] digits) {
+        for (int i = 1; i <= SIZE; i++) {
+            labels[i] = 0;
+        }
+        int next = 1;
+        // -1 once smaller than the best, 0 while equal
+        int compare = found ? 0 : -1;
+        for (int i = 0; i < clueCount; i++) {
+            int cell = clueCells[i];
+            int digit = digits[sourceRows[cell / SIZE] * SIZE + columns[cell % SIZE]];
+            if (labels[digit] == 0) {
+                labels[digit] = (byte) next++;
+            }
+            digit = labels[digit];
+            if (compare == 0) {
+                if (digit > best[i]) {
+                    return;
+                }
+                if (digit < best[i]) {
+                    compare = -1;
+                }
+            }
+            candidate[i] = (byte) digit;
+        }
+        if (compare < 0) {
+            System.arraycopy(candidate, 0, best, 0, clueCount);
+            found = true;
+        }
+    }
+
+    /**
+     * Smallest pattern a row's clues can take under a column order
+     */
+    private static int pattern(int clues, int columnOrder) {
+        int[] stacks = ORDERS[columnOrder >>> 3 * PERMUTATIONS];
+        int pattern = 0;
+        for (int stack = 0; stack < 3; stack++) {
+            int chunk = clues >> 3 * (2 - stacks[stack]) & 7;
+            int orders = columnOrder >> stack * PERMUTATIONS & ALL_ORDERS;
+            pattern = pattern << 3 | SMALLEST_CHUNK[chunk << PERMUTATIONS | orders];
+        }
+        return pattern;
+    }
+
+    /**
+     * @return the column order narrowed to the orders giving the row its smallest pattern
+     */
+    private static int keep(int clues, int columnOrder) {
+        int[] stacks = ORDERS[columnOrder >>> 3 * PERMUTATIONS];
+        int kept = columnOrder & ~ALL_STACKS;
+        for (int stack = 0; stack < 3; stack++) {
+            int chunk = clues >> 3 * (2 - stacks[stack]) & 7;
+            int orders = columnOrder >> stack * PERMUTATIONS & ALL_ORDERS;
+            kept |= SMALLEST_ORDERS[chunk << PERMUTATIONS | orders] << stack * PERMUTATIONS;
+        }
+        return kept;
+    }
+}
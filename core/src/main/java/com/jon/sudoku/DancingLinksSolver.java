@@ -0,0 +1,265 @@
+package com.jon.sudoku;
+
+/**
+ * Solves sudoku as an exact cover problem with Knuth's Algorithm X using dancing links.
+ * <p>
+ * The matrix has a row for every (cell, digit) choice and 4 * cells columns for
+ * the constraints: each cell holds one digit, and each row, column and box holds
+ * each digit once, 324 columns on a 9x9 grid. The solver is built for one
+ * {@link Geometry}, so it handles boards of any size with the same code. All nodes
+ * live in preallocated int arrays built once per instance.
+ * Givens are selected before the search and every cover is undone afterwards, so
+ * the matrix is back to its full state at the end of each call and repeated solves
+ * don't allocate.
+ */
+public class DancingLinksSolver implements Solver {
+
+    // Node 0 is the root, nodes 1 to columns are the column headers
+    // and every matrix row then takes 4 nodes
+    private static final int ROOT = 0;
+
+    private final Geometry geometry;
+    private final int digits;
+    private final int columns;
+
+    private final int[] left;
+    private final int[] right;
+    private final int[] up;
+    private final int[] down;
+
+    // Column header of each node, and matrix row of each data node
+    private final int[] column;
+    private final int[] matrixRow;
+
+    // Number of nodes left in each column, indexed by header node
+    private final int[] size;
+
+    // First node of each matrix row
+    private final int[] rowStart;
+
+    // Matrix rows chosen so far, givens first
+    private final int[] selected;
+    private int depth;
+
+    private int limit;
+    private int count;
+    private byte[] solution;
+
+    private SolverStats stats;
+
+    /**
+     * Creates a solver for 9x9 boards
+     */
+    public DancingLinksSolver() {
+        this(Geometry.STANDARD);
+    }
+
+    /**
+     * Creates a solver for boards of the given geometry
+     *
+     * @param geometry
+     */
+    public DancingLinksSolver(Geometry geometry) {
+        this.geometry = geometry;
+        int cells = geometry.getCells();
+        digits = geometry.getSize();
+        columns = 4 * cells;
+        int rows = cells * digits;
+        int nodes = 1 + columns + 4 * rows;
+        left = new int[nodes];
+        right = new int[nodes];
+        up = new int[nodes];
+        down = new int[nodes];
+        column = new int[nodes];
+        matrixRow = new int[nodes];
+        size = new int[columns + 1];
+        rowStart = new int[rows];
+        selected = new int[cells];
+
+        // link the column headers in a circle through the root
+        for (int header = 0; header <= columns; header++) {
+            left[header] = header == 0 ? columns : header - 1;
+            right[header] = header == columns ? 0 : header + 1;
+            up[header] = header;
+            down[header] = header;
+            column[header] = header;
+        }
+
+        int node = columns + 1;
+        for (int cell = 0; cell < cells; cell++) {
+            int row = geometry.row(cell);
+            int col = geometry.column(cell);
+            int box = geometry.box(cell);
+            for (int digit = 0; digit < digits; digit++) {
+                int matrix = cell * digits + digit;
+                rowStart[matrix] = node;
+                addNode(node, matrix, 1 + cell);
+                addNode(node + 1, matrix, 1 + cells + row * digits + digit);
+                addNode(node + 2, matrix, 1 + 2 * cells + col * digits + digit);
+                addNode(node + 3, matrix, 1 + 3 * cells + box * digits + digit);
+                for (int i = 0; i < 4; i++) {
+                    left[node + i] = node + (i + 3) % 4;
+                    right[node + i] = node + (i + 1) % 4;
+                }
+                node += 4;
+            }
+        }
+    }
+
+    @Override
+    public int countSolutions(Board board, int limit) {
+        return run(board, limit, null);
+    }
+
+    @Override
+    public boolean solve(Board board, byte[] solution) {
+        return run(board, 1, solution) > 0;
+    }
+
+    @Override
+    public void setStats(SolverStats stats) {
+        this.stats = stats;
+    }
+
+    private int run(Board board, int limit, byte[] solution) {
+        long start = stats != null ? System.nanoTime() : 0;
+        int found = exactCover(board, limit, solution);
+        if (stats != null) {
+            stats.recordSolve(System.nanoTime() - start);
+        }
+        return found;
+    }
+
+    private int exactCover(Board board, int limit, byte[] solution) {
+        if (!board.getGeometry().equals(geometry)) {
+            throw new IllegalArgumentException("Solver is for " + geometry + " boards, not " + board.getGeometry());
+        }
+        for (int cell = 0; cell < selected.length; cell++) {
+            if (board.isConflicting(cell)) {
+                return 0;
+            }
+        }
+
+        this.limit = limit;
+        this.solution = solution;
+        count = 0;
+        depth = 0;
+
+        // select the rows of the digits already on the board
+        for (int cell = 0; cell < selected.length; cell++) {
+            int digit = board.get(cell);
+            if (digit != 0) {
+                int matrix = cell * digits + digit - 1;
+                selected[depth++] = matrix;
+                selectRow(rowStart[matrix]);
+            }
+        }
+
+        search();
+
+        // put the matrix back the way it was
+        while (depth > 0) {
+            unselectRow(rowStart[selected[--depth]]);
+        }
+        this.solution = null;
+        return count;
+    }
+
+    private void search() {
+        if (stats != null) {
+            stats.nodes++;
+        }
+        if (right[ROOT] == ROOT) {
+            if (count++ == 0 && solution != null) {
+                for (int i = 0; i < depth; i++) {
+                    solution[selected[i] / digits] = (byte) (selected[i] % digits + 1);
+                }
+            }
+            return;
+        }
+
+        // branch on the column with the fewest rows left
+        int best = right[ROOT];
+        for (int header = right[best]; header != ROOT; header = right[header]) {
+            if (size[header] < size[best]) {
+                best = header;
+            }
+        }
+        if (size[best] == 0) {
+            if (stats != null) {
+                stats.backtracks++;
+            }
+            return;
+        }
+
+        cover(best);
+        for (int node = down[best]; node != best && count < limit; node = down[node]) {
+            selected[depth++] = matrixRow[node];
+            for (int other = right[node]; other != node; other = right[other]) {
+                cover(column[other]);
+            }
+
+            search();
+
+            for (int other = left[node]; other != node; other = left[other]) {
+                uncover(column[other]);
+            }
+            depth--;
+        }
+        uncover(best);
+    }
+
+    /**
+     * Appends a node to the bottom of a column
+     */
+    private void addNode(int node, int matrix, int header) {
+        column[node] = header;
+        matrixRow[node] = matrix;
+        up[node] = up[header];
+        down[node] = header;
+        down[up[header]] = node;
+        up[header] = node;
+        size[header]++;
+    }
+
+    private void selectRow(int node) {
+        cover(column[node]);
+        for (int other = right[node]; other != node; other = right[other]) {
+            cover(column[other]);
+        }
+    }
+
+    private void unselectRow(int node) {
+        for (int other = left[node]; other != node; other = left[other]) {
+            uncover(column[other]);
+        }
+        uncover(column[node]);
+    }
+
+    /**
+     * Removes a column and every row that uses it
+     */
+    private void cover(int header) {
+        right[left[header]] = right[header];
+        left[right[header]] = left[header];
+        for (int row = down[header]; row != header; row = down[row]) {
+            for (int node = right[row]; node != row; node = right[node]) {
+                down[up[node]] = down[node];
+                up[down[node]] = up[node];
+                size[column[node]]--;
+            }
+        }
+    }
+
+    private void uncover(int header) {
+        for (int row = up[header]; row != header; row = up[row]) {
+            for (int node = left[row]; node != row; node = left[node]) {
+                size[column[node]]++;
+                down[up[node]] = node;
+                up[down[node]] = node;
+            }
+        }
+        right[left[header]] = header;
+        left[right[header]] = header;
+    }
+}
@@ -0,0 +1,258 @@
+package com.jon.sudoku;
+
+import java.io.IOException;
+
+/**
+ * State of the game being played, kept apart from the views so it can be driven
+ * and checked on the JVM: the board and its pencil marks, the highlighted square,
+ * undo history and whether the game is won.
+ * <p>
+ * The activity turns taps and button presses into calls here. Each call says
+ * whether anything changed, and a move lists the squares it changed so only those
+ * are redrawn. Moves are written to the journal and checked against the solution
+ * when those are set. A journal that fails to write is dropped, and the game says
+ * so until a new one is set, so the caller can save a full snapshot instead.
+ */
+public class Game {
+
+    private final Board board;
+    private final Candidates candidates;
+    private final int difficulty;
+    private final MoveHistory history;
+
+    // Highlighted cell, -1 when none is selected
+    private int highlighted = -1;
+
+    // True once every square is filled without conflicts, moves are ignored from then on
+    private boolean won;
+
+    // Saves every move, null when not saving
+    private GameJournal journal;
+
+    // True when the journal failed to write a move and was dropped
+    private boolean journalFailed;
+
+    // Solution entries are checked against, null when not checking
+    private SolutionChecker checker;
+
+    // Squares the last move changed: the moved cell, then cells whose conflicts flipped,
+    // then cells whose candidates changed
+    private final int[] changed = new int[1 + 2 * Geometry.STANDARD.getPeerCount()];
+    private int changedCount;
+    private final int[] peers = new int[Geometry.STANDARD.getPeerCount()];
+
+    /**
+     * @param game      the puzzle and any moves already made on it
+     * @param undoLimit most moves that can be undone
+     */
+    public Game(SavedGame game, int undoLimit) {
+        board = game.getBoard();
+        candidates = game.getCandidates();
+        difficulty = game.getDifficulty();
+        history = new MoveHistory(undoLimit);
+        won = board.isSolved();
+    }
+
+    public Board getBoard() {
+        return board;
+    }
+
+    public Candidates getCandidates() {
+        return candidates;
+    }
+
+    /**
+     * @return 0 = easy, 1 = medium, 2 = hard
+     */
+    public int getDifficulty() {
+        return difficulty;
+    }
+
+    /**
+     * @return the highlighted cell, -1 when none is selected
+     */
+    public int getHighlighted() {
+        return highlighted;
+    }
+
+    public boolean isWon() {
+        return won;
+    }
+
+    public boolean canUndo() {
+        return !won && history.canUndo();
+    }
+
+    public boolean canRedo() {
+        return !won && history.canRedo();
+    }
+
+    /**
+     * @param journal saves every move from now on, or null to stop saving
+     */
+    public void setJournal(GameJournal journal) {
+        this.journal = journal;
+        journalFailed = false;
+    }
+
+    /**
+     * @return true if the journal failed to write a move, so moves since the last
+     * snapshot are only kept here until the game is saved in full and a journal set again
+     */
+    public boolean isJournalFailed() {
+        return journalFailed;
+    }
+
+    /**
+     * @param checker checks every move from now on, or null to stop checking
+     */
+    public void setChecker(SolutionChecker checker) {
+        this.checker = checker;
+    }
+
+    public SolutionChecker getChecker() {
+        return checker;
+    }
+
+    /**
+     * @return the puzzle and moves so far, for saving
+     */
+    public SavedGame save() {
+        return new SavedGame(board, candidates, difficulty);
+    }
+
+    /**
+     * Highlights a square. Givens can't be highlighted, and nothing changes once the game is won.
+     *
+     * @param cell the square tapped, -1 for none
+     * @return true if the highlight moved
+     */
+    public boolean tap(int cell) {
+        if (won || cell == -1 || board.isGiven(cell)) {
+            return false;
+        }
+        highlighted = cell;
+        return true;
+    }
+
+    /**
+     * Puts a digit in the highlighted square
+     *
+     * @param digit 1-9, or 0 to clear the square
+     * @return true if the board changed
+     */
+    public boolean enter(int digit) {
+        if (won || highlighted == -1 || digit == board.get(highlighted)) {
+            return false;
+        }
+        history.record(MoveHistory.pack(highlighted, board.get(highlighted), digit, 0));
+        move(highlighted, digit, 0);
+        return true;
+    }
+
+    /**
+     * Rules a digit out of the highlighted square's pencil marks, or back in if it
+     * was ruled out. Only empty squares have pencil marks.
+     *
+     * @param digit 1-9
+     * @return true if the pencil marks changed
+     */
+    public boolean ruleOut(int digit) {
+        if (won || highlighted == -1 || board.get(highlighted) != 0 || digit < 1 || digit > Board.SIZE) {
+            return false;
+        }
+        history.record(MoveHistory.pack(highlighted, 0, 0, 1 << digit));
+        move(highlighted, 0, 1 << digit);
+        return true;
+    }
+
+    /**
+     * Takes back the last move
+     *
+     * @return true if there was a move to undo
+     */
+    public boolean undo() {
+        if (!canUndo()) {
+            return false;
+        }
+        int move = history.undo();
+        move(MoveHistory.cell(move), MoveHistory.oldDigit(move), MoveHistory.eliminatedChange(move));
+        return true;
+    }
+
+    /**
+     * Makes the last undone move again
+     *
+     * @return true if there was a move to redo
+     */
+    public boolean redo() {
+        if (!canRedo()) {
+            return false;
+        }
+        int move = history.redo();
+        move(MoveHistory.cell(move), MoveHistory.newDigit(move), MoveHistory.eliminatedChange(move));
+        return true;
+    }
+
+    /**
+     * @return number of squares the last move changed
+     */
+    public int getChangedCount() {
+        return changedCount;
+    }
+
+    /**
+     * @param i 0 to getChangedCount() - 1, the moved square comes first
+     * @return a square the last move changed
+     */
+    public int getChanged(int i) {
+        return changed[i];
+    }
+
+    /**
+     * Puts a digit in a cell and flips any ruled out digits of the move, highlighting
+     * the cell, then checks whether the game is won
+     *
+     * @param cell
+     * @param digit            1-9, or 0 to clear the cell
+     * @param eliminatedChange ruled out digits to flip, 0 for none
+     */
+    private void move(int cell, int digit, int eliminatedChange) {
+        highlighted = cell;
+
+        int oldDigit = board.get(cell);
+        int flipped = board.set(cell, digit, peers);
+        changedCount = 0;
+        changed[changedCount++] = cell;
+        for (int i = 0; i < flipped; i++) {
+            changed[changedCount++] = peers[i];
+        }
+        int updated = candidates.update(cell, oldDigit, digit, peers);
+        for (int i = 0; i < updated; i++) {
+            changed[changedCount++] = peers[i];
+        }
+        if (checker != null) {
+            checker.update(cell, oldDigit, digit);
+        }
+        if (eliminatedChange != 0) {
+            candidates.setEliminated(cell, candidates.getEliminated(cell) ^ eliminatedChange);
+        }
+
+        if (journal != null) {
+            try {
+                if (digit != oldDigit) {
+                    journal.recordMove(cell, digit);
+                }
+                if (eliminatedChange != 0) {
+                    journal.recordEliminated(cell, candidates.getEliminated(cell));
+                }
+            } catch (IOException e) {
+                // the move still stands, but later moves can't be replayed without this one
+                journal = null;
+                journalFailed = true;
+            }
+        }
+
+        won = board.isSolved();
+    }
+}
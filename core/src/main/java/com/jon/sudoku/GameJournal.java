@@ -0,0 +1,209 @@
+package com.jon.sudoku;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Saves a game as a snapshot plus an append-only journal of the moves made since.
+ * <p>
+ * Each move adds a 3 byte record to the journal: the cell, with the top bit set
+ * when the record holds ruled out digits instead of a digit, then a big-endian
+ * short value. Once the journal gets long it is folded into a fresh snapshot.
+ * Restoring reads both files whole and replays the journal, ignoring a record
+ * cut short by the process being killed mid write.
+ */
+public class GameJournal {
+
+    public static final int RECORD_SIZE = 3;
+
+    // Moves to journal before writing a new snapshot
+    private static final int MAX_RECORDS = 512;
+
+    private static final int ELIMINATED_FLAG = 0x80;
+
+    private final File snapshotFile;
+    private final File journalFile;
+
+    private final byte[] record = new byte[RECORD_SIZE];
+    private final int[] changed = new int[20];
+
+    private SavedGame game;
+    private FileOutputStream journal;
+    private int records;
+
+    /**
+     * @param snapshotFile file holding the last snapshot of the game
+     * @param journalFile  file the moves since the snapshot are appended to
+     */
+    public GameJournal(File snapshotFile, File journalFile) {
+        this.snapshotFile = snapshotFile;
+        this.journalFile = journalFile;
+    }
+
+    /**
+     * Starts saving a game, writing its snapshot and emptying the journal
+     *
+     * @param game
+     * @throws IOException
+     */
+    public void start(SavedGame game) throws IOException {
+        this.game = game;
+
+        // the old game's moves must never be replayed on the new one
+        close();
+        deleteJournal();
+        writeSnapshot();
+    }
+
+    /**
+     * Reads the saved game back and keeps journaling its moves
+     *
+     * @return the saved game, or null if nothing is saved
+     * @throws IOException if the saved game can't be read
+     */
+    public SavedGame restore() throws IOException {
+        if (!snapshotFile.exists()) {
+            return null;
+        }
+        SavedGame saved = SavedGame.fromBytes(readFully(snapshotFile));
+        byte[] moves = journalFile.exists() ? readFully(journalFile) : new byte[0];
+
+        Board board = saved.getBoard();
+        Candidates candidates = saved.getCandidates();
+        int count = moves.length / RECORD_SIZE;
+        for (int i = 0; i < count; i++) {
+            int cell = moves[i * RECORD_SIZE] & 0xFF;
+            int value = (moves[i * RECORD_SIZE + 1] & 0xFF) << 8 | (moves[i * RECORD_SIZE + 2] & 0xFF);
+            boolean eliminated = (cell & ELIMINATED_FLAG) != 0;
+            cell &= ~ELIMINATED_FLAG;
+            if (cell >= Board.CELLS || board.isGiven(cell) || (!eliminated && value > Board.SIZE)) {
+                throw new IOException("Bad journal record " + i);
+            }
+
+            if (eliminated) {
+                candidates.setEliminated(cell, value);
+            } else {
+                int oldDigit = board.get(cell);
+                board.set(cell, value);
+                candidates.update(cell, oldDigit, value, changed);
+            }
+        }
+
+        game = saved;
+        records = count;
+        if (moves.length % RECORD_SIZE != 0) {
+            // drop the partly written record
+            writeSnapshot();
+        }
+        return saved;
+    }
+
+    /**
+     * Journals a digit put in a cell, after the move has been made on the board
+     *
+     * @param cell
+     * @param digit 1-9, or 0 if the cell was cleared
+     * @throws IOException
+     */
+    public void recordMove(int cell, int digit) throws IOException {
+        append(cell, digit);
+    }
+
+    /**
+     * Journals the digits ruled out of a cell, after they were set on the candidates
+     *
+     * @param cell
+     * @param mask bit d set for each ruled out digit d
+     * @throws IOException
+     */
+    public void recordEliminated(int cell, int mask) throws IOException {
+        append(cell | ELIMINATED_FLAG, mask);
+    }
+
+    /**
+     * Closes the journal, the saved game stays on disk
+     *
+     * @throws IOException
+     */
+    public void close() throws IOException {
+        if (journal != null) {
+            journal.close();
+            journal = null;
+        }
+    }
+
+    /**
+     * @return number of moves journaled since the last snapshot
+     */
+    public int getRecordCount() {
+        return records;
+    }
+
+    private void append(int cell, int value) throws IOException {
+        if (game == null) {
+            throw new IllegalStateException("No game started");
+        }
+        if (records >= MAX_RECORDS) {
+            writeSnapshot();
+            return;
+        }
+        if (journal == null) {
+            journal = new FileOutputStream(journalFile, true);
+        }
+        record[0] = (byte) cell;
+        record[1] = (byte) (value >> 8);
+        record[2] = (byte) value;
+        journal.write(record);
+        records++;
+    }
+
+    /**
+     * Replaces the snapshot with the current game and empties the journal.
+     * The snapshot is written to a temporary file first so a crash leaves the old one,
+     * and a journal left behind by a crash after the rename only repeats moves the new
+     * snapshot already holds.
+     */
+    private void writeSnapshot() throws IOException {
+        close();
+
+        File temp = new File(snapshotFile.getPath() + ".tmp");
+        FileOutputStream out = new FileOutputStream(temp);
+        try {
+            out.write(game.toBytes());
+            out.getFD().sync();
+        } finally {
+            out.close();
+        }
+        if (!temp.renameTo(snapshotFile)) {
+            throw new IOException("Cannot replace " + snapshotFile);
+        }
+        deleteJournal();
+        records = 0;
+    }
+
+    private void deleteJournal() throws IOException {
+        if (!journalFile.delete() && journalFile.exists()) {
+            throw new IOException("Cannot clear " + journalFile);
+        }
+    }
+
+    private static byte[] readFully(File file) throws IOException {
+        byte[] bytes = new byte[(int) file.length()];
+        FileInputStream in = new FileInputStream(file);
+        try {
+            int read = 0;
+            while (read < bytes.length) {
+                int n = in.read(bytes, read, bytes.length - read);
+                if (n < 0) {
+                    break;
+                }
+                read += n;
+            }
+        } finally {
+            in.close();
+        }
+        return bytes;
+    }
+}
@@ -0,0 +1,141 @@
+package com.jon.sudoku;
+
+import java.util.Random;
+
+/**
+ * Handles the different puzzle set ups
+ */
+public class GeneratePuzzle {
+
+    // Puzzles kept ready for each difficulty
+    private static final int POOL_SIZE = 3;
+
+    // Pause between background puzzles so the UI keeps the CPU
+    private static final long REFILL_INTERVAL_MILLIS = 250;
+
+    // Shared pool, seeded differently on each run
+    private static final PuzzlePool pool =
+            new PuzzlePool(POOL_SIZE, REFILL_INTERVAL_MILLIS, System.nanoTime());
+
+    // Solutions of the puzzles played most recently, so checking a board doesn't solve it again
+    private static final int SOLUTION_CACHE_SIZE = 256;
+    private static final SolutionCache solutions = new SolutionCache(SOLUTION_CACHE_SIZE);
+
+    // Pre-built puzzles to draw from before generating any, null when there is no library
+    private static volatile PuzzleLibrary library;
+    private static final Random libraryRandom = new Random();
+
+    private static final int[][] easyPuzzle = {
+            {0,6,1,8,0,0,0,0,7},
+            {0,8,9,2,0,5,0,4,0},
+            {0,0,0,0,4,0,9,0,3},
+            {2,0,0,1,6,0,3,0,0},
+            {6,7,0,0,0,0,0,5,1},
+            {0,0,4,0,2,3,0,0,8},
+            {7,0,5,0,9,0,0,0,0},
+            {0,9,0,4,0,2,7,3,0},
+            {1,0,0,0,0,8,4,6,0}
+    };
+    private static final int[][] mediumPuzzle = {
+            {0,5,0,3,6,0,0,0,0},
+            {2,8,0,7,0,0,0,0,0},
+            {0,0,0,0,0,8,0,9,0},
+            {6,0,0,0,0,0,0,8,3},
+            {0,0,4,0,0,0,2,0,0},
+            {8,9,0,0,0,0,0,0,6},
+            {0,7,0,5,0,0,0,0,0},
+            {0,0,0,0,0,1,0,3,9},
+            {0,0,0,0,4,3,0,6,0}
+    };
+    private static final int[][] hardPuzzle = {
+            {0,7,0,0,0,0,0,9,0},
+            {0,0,0,0,5,0,4,0,2},
+            {0,0,0,0,0,0,0,3,0},
+            {6,0,0,0,1,3,2,0,0},
+            {0,0,9,0,8,0,0,0,0},
+            {0,3,1,0,0,6,0,0,0},
+            {4,6,0,0,0,0,0,0,1},
+            {0,0,8,0,0,4,6,0,0},
+            {0,0,0,0,3,5,0,0,0}
+    };
+
+    /**
+     * Gets a new puzzle, from the library if it has puzzles of the difficulty,
+     * otherwise from the pool when one is ready
+     *
+     * @param difficulty 0 = easy, 1 = medium, 2 = hard
+     * @return 9x9 array of digits, 0 for empty squares
+     */
+    public static int[][] generatePuzzle(int difficulty) {
+        if (difficulty < 0 || difficulty >= PuzzlePool.DIFFICULTIES) {
+            difficulty = 0;
+        }
+
+        PuzzleLibrary puzzles = library;
+        if (puzzles != null && puzzles.size(difficulty) > 0) {
+            return puzzles.get(difficulty, libraryRandom.nextInt(puzzles.size(difficulty)));
+        }
+        return pool.take(difficulty);
+    }
+
+    /**
+     * Draws new puzzles from a library instead of generating them
+     *
+     * @param puzzles the library, or null to go back to generating puzzles
+     */
+    public static void useLibrary(PuzzleLibrary puzzles) {
+        library = puzzles;
+    }
+
+    /**
+     * Starts generating puzzles in the background so the first game doesn't wait
+     */
+    public static void prefill() {
+        pool.refill();
+    }
+
+    /**
+     * @return the pool puzzles are taken from, for its hit and miss counts
+     */
+    public static PuzzlePool getPool() {
+        return pool;
+    }
+
+    /**
+     * @return the cache of solutions shared by everything that needs one
+     */
+    public static SolutionCache getSolutions() {
+        return solutions;
+    }
+
+    /**
+     * Generates the same puzzle every time for a given seed
+     *
+     * @param difficulty 0 = easy, 1 = medium, 2 = hard
+     * @param seed
+     * @return 9x9 array of digits, 0 for empty squares
+     */
+    public static int[][] generatePuzzle(int difficulty, long seed) {
+        return new PuzzleGenerator(Solvers.create(), seed).generate(difficulty).toArray();
+    }
+
+    /**
+     * The fixed puzzles the game used to ship with, kept for tests and benchmarks
+     *
+     * @param difficulty 0 = easy, 1 = medium, 2 = hard
+     * @return 9x9 array of digits, 0 for empty squares
+     */
+    public static int[][] fixture(int difficulty) {
+        switch (difficulty) {
+            case 0:
+                return easyPuzzle;
+
+            case 1:
+                return mediumPuzzle;
+
+            case 2:
+                return hardPuzzle;
+        }
+        return easyPuzzle;
+    }
+}
@@ -0,0 +1,162 @@
+package com.jon.sudoku;
+
+/**
+ * Shape of a sudoku grid, given by the rows and columns of its boxes.
+ * A grid with 2x3 boxes is 6x6 and holds digits 1-6, the standard one has 3x3
+ * boxes. The row, column and box of every cell and the peers of every cell are
+ * worked out once, so boards and solvers of any size look them up instead of
+ * dividing, and the 9x9-only candidate tracking, hints and bitboard solver index
+ * the standard geometry's tables. Sizes go up to 25 so a digit still fits in a
+ * byte and a unit's digits in an int mask.
+ */
+public final class Geometry {
+
+    public static final int MAX_SIZE = 25;
+
+    // The classic 9x9 grid with 3x3 boxes
+    public static final Geometry STANDARD = new Geometry(3, 3);
+
+    private final int boxRows;
+    private final int boxColumns;
+    private final int size;
+    private final int cells;
+
+    // Row, column and box of each cell
+    private final int[] rows;
+    private final int[] columns;
+    private final int[] boxes;
+
+    // Cells of each unit: rows first, then columns, then boxes
+    private final int[][] units;
+
+    // Cells sharing a row, column or box with each cell
+    private final int[][] peers;
+
+    /**
+     * @param boxRows    rows in each box
+     * @param boxColumns columns in each box
+     */
+    public Geometry(int boxRows, int boxColumns) {
+        if (boxRows < 1 || boxColumns < 1 || boxRows * boxColumns > MAX_SIZE) {
+            throw new IllegalArgumentException("Unsupported box size: " + boxRows + "x" + boxColumns);
+        }
+        this.boxRows = boxRows;
+        this.boxColumns = boxColumns;
+        size = boxRows * boxColumns;
+        cells = size * size;
+
+        rows = new int[cells];
+        columns = new int[cells];
+        boxes = new int[cells];
+        units = new int[3 * size][size];
+        int[] unitCounts = new int[3 * size];
+        for (int cell = 0; cell < cells; cell++) {
+            rows[cell] = cell / size;
+            columns[cell] = cell % size;
+            boxes[cell] = (rows[cell] / boxRows) * boxRows + columns[cell] / boxColumns;
+            int[] cellUnits = {rows[cell], size + columns[cell], 2 * size + boxes[cell]};
+            for (int unit : cellUnits) {
+                units[unit][unitCounts[unit]++] = cell;
+            }
+        }
+
+        peers = new int[cells][];
+        int peerCount = 2 * (size - 1) + (boxRows - 1) * (boxColumns - 1);
+        for (int cell = 0; cell < cells; cell++) {
+            peers[cell] = new int[peerCount];
+            int count = 0;
+            for (int other = 0; other < cells; other++) {
+                if (other != cell && (rows[other] == rows[cell] || columns[other] == columns[cell]
+                        || boxes[other] == boxes[cell])) {
+                    peers[cell][count++] = other;
+                }
+            }
+        }
+    }
+
+    public int getBoxRows() {
+        return boxRows;
+    }
+
+    public int getBoxColumns() {
+        return boxColumns;
+    }
+
+    /**
+     * @return cells in each row, column and box, which is also the largest digit
+     */
+    public int getSize() {
+        return size;
+    }
+
+    public int getCells() {
+        return cells;
+    }
+
+    /**
+     * @return bitmask with bits 1 to size set
+     */
+    public int getAllDigits() {
+        return ((1 << size) - 1) << 1;
+    }
+
+    public int cell(int row, int column) {
+        return row * size + column;
+    }
+
+    public int row(int cell) {
+        return rows[cell];
+    }
+
+    public int column(int cell) {
+        return columns[cell];
+    }
+
+    /**
+     * Boxes are numbered left to right then top to bottom
+     *
+     * @param cell
+     * @return box of the cell
+     */
+    public int box(int cell) {
+        return boxes[cell];
+    }
+
+    /**
+     * @param unit 0 to size - 1 for rows, then columns, then boxes
+     * @return the cells of the unit, not to be modified
+     */
+    public int[] unit(int unit) {
+        return units[unit];
+    }
+
+    /**
+     * @param cell
+     * @return the cells sharing a row, column or box with the cell, not to be modified
+     */
+    public int[] peers(int cell) {
+        return peers[cell];
+    }
+
+    /**
+     * @return number of peers of every cell, 20 on the standard grid
+     */
+    public int getPeerCount() {
+        return peers[0].length;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Geometry && ((Geometry) o).boxRows == boxRows && ((Geometry) o).boxColumns == boxColumns;
+    }
+
+    @Override
+    public int hashCode() {
+        return boxRows * 31 + boxColumns;
+    }
+
+    @Override
+    public String toString() {
+        return size + "x" + size + " (" + boxRows + "x" + boxColumns + " boxes)";
+    }
+}
@@ -0,0 +1,44 @@
+package com.jon.sudoku;
+
+/**
+ * The next digit that can be worked out, and how
+ */
+public class Hint {
+
+    private final Technique technique;
+    private final int cell;
+    private final int digit;
+    private final int[] affectedCells;
+
+    public Hint(Technique technique, int cell, int digit, int[] affectedCells) {
+        this.technique = technique;
+        this.cell = cell;
+        this.digit = digit;
+        this.affectedCells = affectedCells;
+    }
+
+    /**
+     * @return the hardest technique needed to find the digit
+     */
+    public Technique getTechnique() {
+        return technique;
+    }
+
+    /**
+     * @return the cell the digit goes in
+     */
+    public int getCell() {
+        return cell;
+    }
+
+    public int getDigit() {
+        return digit;
+    }
+
+    /**
+     * @return cells that had candidates removed on the way to the digit
+     */
+    public int[] getAffectedCells() {
+        return affectedCells;
+    }
+}
@@ -0,0 +1,550 @@
+package com.jon.sudoku;
+
+/**
+ * Works through a puzzle the way a person would, using candidate bitmasks
+ * and the techniques in {@link Technique}, easiest first.
+ * <p>
+ * The same search gives hints for a board in play and grades a puzzle by the
+ * hardest technique needed to finish it. An instance keeps its working state
+ * between calls so it should only be used by one thread at a time.
+ */
+public class HintEngine {
+
+    // Bits 1-9 set
+    private static final int ALL_DIGITS = 0x3FE;
+
+    // Number of rows, columns and boxes
+    private static final int UNITS = 3 * Board.SIZE;
+
+    // Cells of each unit: rows first, then columns, then boxes
+    private static final int[][] UNIT_CELLS = new int[UNITS][];
+
+    static {
+        for (int unit = 0; unit < UNITS; unit++) {
+            UNIT_CELLS[unit] = Geometry.STANDARD.unit(unit);
+        }
+    }
+
+    private final byte[] values = new byte[Board.CELLS];
+    private final int[] candidates = new int[Board.CELLS];
+
+    // Cells that lost candidates since the last load
+    private final boolean[] affected = new boolean[Board.CELLS];
+
+    // Scratch space for the places a digit can go in each unit or line
+    private final int[] places = new int[Board.SIZE + 1];
+
+    // Placement found by the last call to findSingle
+    private Technique singleTechnique;
+    private int singleCell;
+    private int singleDigit;
+
+    // Technique counts, null when not collected
+    private SolverStats stats;
+
+    /**
+     * Finds the next digit that can be placed, applying harder techniques to
+     * remove candidates until one can be.
+     *
+     * @param board
+     * @return the hint, or null if the board is full, has conflicts or needs guessing
+     */
+    public Hint nextHint(Board board) {
+        return nextHint(board, null);
+    }
+
+    /**
+     * Finds the next hint starting from candidates that are already tracked,
+     * so digits the player has ruled out stay ruled out.
+     *
+     * @param board
+     * @param candidates the board's candidates, or null to work them out
+     * @return the hint, or null if the board is full, has conflicts or needs guessing
+     */
+    public Hint nextHint(Board board, Candidates candidates) {
+        if (!load(board, candidates)) {
+            return null;
+        }
+
+        Technique hardest = Technique.NAKED_SINGLE;
+        while (true) {
+            if (findSingle()) {
+                count(singleTechnique);
+                hardest = harder(hardest, singleTechnique);
+                return new Hint(hardest, singleCell, singleDigit, affectedCells());
+            }
+            Technique technique = findElimination();
+            if (technique == null) {
+                return null;
+            }
+            count(technique);
+            hardest = harder(hardest, technique);
+        }
+    }
+
+    /**
+     * Starts or stops counting the techniques applied
+     *
+     * @param stats where to count them, or null to stop
+     */
+    public void setStats(SolverStats stats) {
+        this.stats = stats;
+    }
+
+    /**
+     * Solves the puzzle with the techniques in order and reports the hardest one needed.
+     *
+     * @param board
+     * @return the hardest technique, {@link Technique#GUESS} if the techniques
+     * aren't enough, or null if the board has conflicts
+     */
+    public Technique grade(Board board) {
+        if (!load(board, null)) {
+            return null;
+        }
+
+        int empty = 0;
+        for (int cell = 0; cell < Board.CELLS; cell++) {
+            if (values[cell] == 0) {
+                empty++;
+            }
+        }
+
+        Technique hardest = Technique.NAKED_SINGLE;
+        while (empty > 0) {
+            if (findSingle()) {
+                count(singleTechnique);
+                hardest = harder(hardest, singleTechnique);
+                place(singleCell, singleDigit);
+                empty--;
+                continue;
+            }
+            Technique technique = findElimination();
+            if (technique == null) {
+                count(Technique.GUESS);
+                return Technique.GUESS;
+            }
+            count(technique);
+            hardest = harder(hardest, technique);
+        }
+        return hardest;
+    }
+
+    /**
+     * Copies the board and the candidates of every empty cell
+     *
+     * @param tracked candidates to copy, or null to work them out from the board
+     * @return false if the board has conflicts
+     */
+    private boolean load(Board board, Candidates tracked) {
+        for (int cell = 0; cell < Board.CELLS; cell++) {
+            if (board.isConflicting(cell)) {
+                return false;
+            }
+            values[cell] = (byte) board.get(cell);
+            if (tracked != null) {
+                candidates[cell] = tracked.get(cell);
+            } else {
+                candidates[cell] = values[cell] != 0 ? 0 : ~(board.rowMask(Board.row(cell))
+                        | board.columnMask(Board.column(cell)) | board.boxMask(Board.box(cell))) & ALL_DIGITS;
+            }
+            affected[cell] = false;
+        }
+        return true;
+    }
+
+    /**
+     * Fills a cell and removes the digit from the candidates of its row, column and box
+     */
+    private void place(int cell, int digit) {
+        int bit = 1 << digit;
+        values[cell] = (byte) digit;
+        candidates[cell] = 0;
+        removeFromUnit(Board.row(cell), bit);
+        removeFromUnit(Board.SIZE + Board.column(cell), bit);
+        removeFromUnit(2 * Board.SIZE + Board.box(cell), bit);
+    }
+
+    private void removeFromUnit(int unit, int bit) {
+        for (int cell : UNIT_CELLS[unit]) {
+            candidates[cell] &= ~bit;
+        }
+    }
+
+    /**
+     * Removes candidates from a cell
+     *
+     * @return true if the cell had any of them
+     */
+    private boolean eliminate(int cell, int mask) {
+        if ((candidates[cell] & mask) == 0) {
+            return false;
+        }
+        candidates[cell] &= ~mask;
+        affected[cell] = true;
+        return true;
+    }
+
+    private int[] affectedCells() {
+        int count = 0;
+        for (int cell = 0; cell < Board.CELLS; cell++) {
+            if (affected[cell]) {
+                count++;
+            }
+        }
+        int[] cells = new int[count];
+        count = 0;
+        for (int cell = 0; cell < Board.CELLS; cell++) {
+            if (affected[cell]) {
+                cells[count++] = cell;
+            }
+        }
+        return cells;
+    }
+
+    private void count(Technique technique) {
+        if (stats != null) {
+            stats.techniques[technique.ordinal()]++;
+        }
+    }
+
+    private static Technique harder(Technique a, Technique b) {
+        return a.compareTo(b) >= 0 ? a : b;
+    }
+
+    /**
+     * Looks for a naked single, then a hidden single
+     *
+     * @return true if one was found, stored in the single fields
+     */
+    private boolean findSingle() {
+        // a cell with only one candidate
+        for (int cell = 0; cell < Board.CELLS; cell++) {
+            int mask = candidates[cell];
+            if (mask != 0 && (mask & (mask - 1)) == 0) {
+                singleTechnique = Technique.NAKED_SINGLE;
+                singleCell = cell;
+                singleDigit = Integer.numberOfTrailingZeros(mask);
+                return true;
+            }
+        }
+
+        // a digit with only one place in a unit
+        for (int unit = 0; unit < UNITS; unit++) {
+            int once = 0;
+            int twice = 0;
+            for (int cell : UNIT_CELLS[unit]) {
+                twice |= once & candidates[cell];
+                once |= candidates[cell];
+            }
+            int hidden = once & ~twice;
+            if (hidden != 0) {
+                int bit = hidden & -hidden;
+                for (int cell : UNIT_CELLS[unit]) {
+                    if ((candidates[cell] & bit) != 0) {
+                        singleTechnique = Technique.HIDDEN_SINGLE;
+                        singleCell = cell;
+                        singleDigit = Integer.numberOfTrailingZeros(bit);
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Applies the easiest technique that removes at least one candidate
+     *
+     * @return the technique applied, or null if none made progress
+     */
+    private Technique findElimination() {
+        if (nakedSubset(2)) {
+            return Technique.NAKED_PAIR;
+        }
+        if (hiddenSubset(2)) {
+            return Technique.HIDDEN_PAIR;
+        }
+        if (pointing()) {
+            return Technique.POINTING_PAIR;
+        }
+        if (boxLineReduction()) {
+            return Technique.BOX_LINE_REDUCTION;
+        }
+        if (nakedSubset(3)) {
+            return Technique.NAKED_TRIPLE;
+        }
+        if (hiddenSubset(3)) {
+            return Technique.HIDDEN_TRIPLE;
+        }
+        if (fish(2)) {
+            return Technique.X_WING;
+        }
+        if (fish(3)) {
+            return Technique.SWORDFISH;
+        }
+        return null;
+    }
+
+    /**
+     * Naked pairs and triples: n cells in a unit that only hold n digits
+     * between them, so no other cell in the unit can have those digits.
+     */
+    private boolean nakedSubset(int size) {
+        for (int unit = 0; unit < UNITS; unit++) {
+            int[] cells = UNIT_CELLS[unit];
+            for (int a = 0; a < Board.SIZE; a++) {
+                int maskA = candidates[cells[a]];
+                if (maskA == 0 || Integer.bitCount(maskA) > size) {
+                    continue;
+                }
+                for (int b = a + 1; b < Board.SIZE; b++) {
+                    int maskB = candidates[cells[b]];
+                    int union = maskA | maskB;
+                    if (maskB == 0 || Integer.bitCount(union) > size) {
+                        continue;
+                    }
+                    if (size == 2) {
+                        if (Integer.bitCount(union) == 2
+                                && eliminateFromUnit(unit, union, (1 << a) | (1 << b))) {
+                            return true;
+                        }
+                        continue;
+                    }
+                    for (int c = b + 1; c < Board.SIZE; c++) {
+                        int maskC = candidates[cells[c]];
+                        if (maskC != 0 && Integer.bitCount(union | maskC) == size
+                                && eliminateFromUnit(unit, union | maskC, (1 << a) | (1 << b) | (1 << c))) {
+                            return true;
+                        }
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Removes digits from every cell of a unit except the ones in keep
+     *
+     * @param keep bit i set to skip the i-th cell of the unit
+     */
+    private boolean eliminateFromUnit(int unit, int digits, int keep) {
+        boolean changed = false;
+        int[] cells = UNIT_CELLS[unit];
+        for (int i = 0; i < Board.SIZE; i++) {
+            if ((keep & (1 << i)) == 0) {
+                changed |= eliminate(cells[i], digits);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Hidden pairs and triples: n digits that only fit in the same n cells of
+     * a unit, so those cells can't hold any other digit.
+     */
+    private boolean hiddenSubset(int size) {
+        for (int unit = 0; unit < UNITS; unit++) {
+            placesInUnit(unit);
+            for (int a = 1; a <= Board.SIZE; a++) {
+                if (places[a] == 0 || Integer.bitCount(places[a]) > size) {
+                    continue;
+                }
+                for (int b = a + 1; b <= Board.SIZE; b++) {
+                    int union = places[a] | places[b];
+                    if (places[b] == 0 || Integer.bitCount(union) > size) {
+                        continue;
+                    }
+                    if (size == 2) {
+                        if (Integer.bitCount(union) == 2 && keepOnly(unit, union, (1 << a) | (1 << b))) {
+                            return true;
+                        }
+                        continue;
+                    }
+                    for (int c = b + 1; c <= Board.SIZE; c++) {
+                        if (places[c] != 0 && Integer.bitCount(union | places[c]) == size
+                                && keepOnly(unit, union | places[c], (1 << a) | (1 << b) | (1 << c))) {
+                            return true;
+                        }
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * For each digit, sets bit i when the i-th cell of the unit can hold it
+     */
+    private void placesInUnit(int unit) {
+        int[] cells = UNIT_CELLS[unit];
+        for (int digit = 1; digit <= Board.SIZE; digit++) {
+            int bit = 1 << digit;
+            int mask = 0;
+            for (int i = 0; i < Board.SIZE; i++) {
+                if ((candidates[cells[i]] & bit) != 0) {
+                    mask |= 1 << i;
+                }
+            }
+            places[digit] = mask;
+        }
+    }
+
+    /**
+     * Removes every digit but the given ones from the chosen cells of a unit
+     */
+    private boolean keepOnly(int unit, int positions, int digits) {
+        boolean changed = false;
+        int[] cells = UNIT_CELLS[unit];
+        for (int i = 0; i < Board.SIZE; i++) {
+            if ((positions & (1 << i)) != 0) {
+                changed |= eliminate(cells[i], ALL_DIGITS & ~digits);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Pointing pairs: when a digit's places in a box all share a row or column,
+     * the digit can be removed from the rest of that row or column.
+     */
+    private boolean pointing() {
+        for (int box = 0; box < Board.SIZE; box++) {
+            int[] cells = UNIT_CELLS[2 * Board.SIZE + box];
+            for (int digit = 1; digit <= Board.SIZE; digit++) {
+                int bit = 1 << digit;
+                int row = -1;
+                int column = -1;
+                for (int cell : cells) {
+                    if ((candidates[cell] & bit) != 0) {
+                        row = row == -1 || row == Board.row(cell) ? Board.row(cell) : -2;
+                        column = column == -1 || column == Board.column(cell) ? Board.column(cell) : -2;
+                    }
+                }
+                if (row >= 0 && eliminateOutsideBox(row, box, bit)) {
+                    return true;
+                }
+                if (column >= 0 && eliminateOutsideBox(Board.SIZE + column, box, bit)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Removes a digit from the cells of a row or column that aren't in the box
+     */
+    private boolean eliminateOutsideBox(int unit, int box, int bit) {
+        boolean changed = false;
+        for (int cell : UNIT_CELLS[unit]) {
+            if (Board.box(cell) != box) {
+                changed |= eliminate(cell, bit);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Box/line reduction: when a digit's places in a row or column all sit in
+     * one box, the digit can be removed from the rest of that box.
+     */
+    private boolean boxLineReduction() {
+        for (int unit = 0; unit < 2 * Board.SIZE; unit++) {
+            for (int digit = 1; digit <= Board.SIZE; digit++) {
+                int bit = 1 << digit;
+                int box = -1;
+                for (int cell : UNIT_CELLS[unit]) {
+                    if ((candidates[cell] & bit) != 0) {
+                        box = box == -1 || box == Board.box(cell) ? Board.box(cell) : -2;
+                    }
+                }
+                if (box >= 0) {
+                    boolean changed = false;
+                    for (int cell : UNIT_CELLS[2 * Board.SIZE + box]) {
+                        if (!inUnit(cell, unit)) {
+                            changed |= eliminate(cell, bit);
+                        }
+                    }
+                    if (changed) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean inUnit(int cell, int unit) {
+        return unit < Board.SIZE ? Board.row(cell) == unit : Board.column(cell) == unit - Board.SIZE;
+    }
+
+    /**
+     * X-Wing (size 2) and Swordfish (size 3): when a digit's places in n rows
+     * fall in only n columns, the digit can be removed from the rest of those
+     * columns. The same applies with rows and columns swapped.
+     */
+    private boolean fish(int size) {
+        for (int digit = 1; digit <= Board.SIZE; digit++) {
+            int bit = 1 << digit;
+            for (int base = 0; base < 2 * Board.SIZE; base += Board.SIZE) {
+                // places of the digit in each base line, bit i for the i-th cross line
+                for (int line = 0; line < Board.SIZE; line++) {
+                    int mask = 0;
+                    int[] cells = UNIT_CELLS[base + line];
+                    for (int i = 0; i < Board.SIZE; i++) {
+                        if ((candidates[cells[i]] & bit) != 0) {
+                            mask |= 1 << i;
+                        }
+                    }
+                    places[line] = mask;
+                }
+
+                int cover = Board.SIZE - base;
+                for (int a = 0; a < Board.SIZE; a++) {
+                    if (places[a] == 0 || Integer.bitCount(places[a]) > size) {
+                        continue;
+                    }
+                    for (int b = a + 1; b < Board.SIZE; b++) {
+                        int union = places[a] | places[b];
+                        if (places[b] == 0 || Integer.bitCount(union) > size) {
+                            continue;
+                        }
+                        if (size == 2) {
+                            if (Integer.bitCount(union) == 2
+                                    && eliminateFish(cover, union, (1 << a) | (1 << b), bit)) {
+                                return true;
+                            }
+                            continue;
+                        }
+                        for (int c = b + 1; c < Board.SIZE; c++) {
+                            if (places[c] != 0 && Integer.bitCount(union | places[c]) == size
+                                    && eliminateFish(cover, union | places[c], (1 << a) | (1 << b) | (1 << c), bit)) {
+                                return true;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Removes a digit from the cover lines, except where they cross the base lines
+     *
+     * @param cover first unit of the cover lines, 0 for rows or 9 for columns
+     * @param lines bit i set for each cover line
+     * @param keep  bit i set for each base line
+     */
+    private boolean eliminateFish(int cover, int lines, int keep, int bit) {
+        boolean changed = false;
+        for (int line = 0; line < Board.SIZE; line++) {
+            if ((lines & (1 << line)) != 0) {
+                changed |= eliminateFromUnit(cover + line, bit, keep);
+            }
+        }
+        return changed;
+    }
+}
@@ -0,0 +1,171 @@
+package com.jon.sudoku;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * Ring buffer of the latest tap-to-render latencies, from the start of an
+ * interaction until the grid has finished redrawing it.
+ * <p>
+ * The UI calls {@link #begin} when an interaction starts and {@link #end} once
+ * drawing is done, so recording is two stores into preallocated arrays. When the
+ * buffer is full the oldest latencies are overwritten. Percentiles are worked out
+ * from the latencies still in the buffer, only when they are asked for.
+ * Meant for the UI thread only.
+ */
+public class InteractionTimings {
+
+    /**
+     * Kinds of interaction that are timed
+     */
+    public enum Interaction {
+        TAP, MOVE, UNDO, REDO
+    }
+
+    private static final Interaction[] INTERACTIONS = Interaction.values();
+
+    // Kind and latency in nanoseconds of each recorded interaction
+    private final byte[] kinds;
+    private final long[] latencies;
+
+    // Slot the next latency goes in and the number of slots in use
+    private int next;
+    private int size;
+
+    // Interaction waiting for its frame, null when none
+    private Interaction pending;
+    private long pendingStart;
+
+    /**
+     * @param capacity latencies kept before the oldest are overwritten
+     */
+    public InteractionTimings(int capacity) {
+        kinds = new byte[capacity];
+        latencies = new long[capacity];
+    }
+
+    /**
+     * Starts timing an interaction. Does nothing if one is already waiting for its
+     * frame, so an interaction that triggers another is timed from the first.
+     *
+     * @param interaction
+     * @param now         System.nanoTime() at the start
+     */
+    public void begin(Interaction interaction, long now) {
+        if (pending == null) {
+            pending = interaction;
+            pendingStart = now;
+        }
+    }
+
+    /**
+     * Drops the waiting interaction, for when it didn't change anything to draw
+     */
+    public void cancel() {
+        pending = null;
+    }
+
+    /**
+     * Records the waiting interaction, if there is one, as finished
+     *
+     * @param now System.nanoTime() once the frame is drawn
+     */
+    public void end(long now) {
+        if (pending != null) {
+            record(pending, now - pendingStart);
+            pending = null;
+        }
+    }
+
+    /**
+     * @param interaction
+     * @param nanos       latency of the interaction
+     */
+    public void record(Interaction interaction, long nanos) {
+        kinds[next] = (byte) interaction.ordinal();
+        latencies[next] = nanos;
+        next = (next + 1) % latencies.length;
+        if (size < latencies.length) {
+            size++;
+        }
+    }
+
+    /**
+     * @param interaction
+     * @return latencies of the interaction still in the buffer
+     */
+    public int getCount(Interaction interaction) {
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (kinds[i] == interaction.ordinal()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @param interaction
+     * @param percentile  0-100
+     * @return the latency at the percentile of the interaction's latencies in the buffer, 0 if there are none
+     */
+    public long getPercentile(Interaction interaction, double percentile) {
+        return percentile(sorted(interaction), percentile);
+    }
+
+    /**
+     * Writes a summary line per interaction, then every latency in the buffer
+     * from oldest to newest, one per line in microseconds
+     *
+     * @param out
+     * @throws IOException
+     */
+    public void writeTo(Writer out) throws IOException {
+        out.write(toString());
+        int oldest = size < latencies.length ? 0 : next;
+        for (int i = 0; i < size; i++) {
+            int slot = (oldest + i) % latencies.length;
+            out.write(INTERACTIONS[kinds[slot]].name().toLowerCase() + " " + latencies[slot] / 1000 + "\n");
+        }
+    }
+
+    /**
+     * @return a line with the count, p50, p99 and max of each interaction that was timed
+     */
+    @Override
+    public String toString() {
+        StringBuilder summary = new StringBuilder();
+        for (Interaction interaction : INTERACTIONS) {
+            long[] sorted = sorted(interaction);
+            if (sorted.length == 0) {
+                continue;
+            }
+            summary.append(String.format("# %s n=%d p50=%.1fms p99=%.1fms max=%.1fms\n",
+                    interaction.name().toLowerCase(), sorted.length,
+                    percentile(sorted, 50) / 1e6, percentile(sorted, 99) / 1e6,
+                    sorted[sorted.length - 1] / 1e6));
+        }
+        return summary.toString();
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private long[] sorted(Interaction interaction) {
+        long[] values = new long[getCount(interaction)];
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (kinds[i] == interaction.ordinal()) {
+                values[count++] = latencies[i];
+            }
+        }
+        Arrays.sort(values);
+        return values;
+    }
+}
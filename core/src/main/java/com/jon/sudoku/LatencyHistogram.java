@@ -0,0 +1,129 @@
+package com.jon.sudoku;
+
+/**
+ * Histogram of latencies in nanoseconds with a fixed number of log-linear buckets,
+ * in the style of HdrHistogram. Each power of two is split into 32 buckets, so a
+ * recorded value is known to within about 3%, from nanoseconds up to hours.
+ * Recording is a few shifts and an array increment and never allocates.
+ * Not thread safe, give each thread its own and {@link #add} them up.
+ */
+public class LatencyHistogram {
+
+    // Buckets per power of two, as bits
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    // Largest exponent kept, larger values share the last bucket
+    private static final int MAX_EXPONENT = 40;
+    private static final int BUCKETS = (MAX_EXPONENT + 2) * SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKETS];
+    private long count;
+    private long total;
+    private long max;
+
+    /**
+     * @param nanos
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        counts[bucket(nanos)]++;
+        count++;
+        total += nanos;
+        if (nanos > max) {
+            max = nanos;
+        }
+    }
+
+    /**
+     * Adds every value recorded in another histogram to this one
+     *
+     * @param other
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        total += other.total;
+        max = Math.max(max, other.max);
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = 0;
+        }
+        count = 0;
+        total = 0;
+        max = 0;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * @return mean of the recorded values, 0 if there are none
+     */
+    public long getMean() {
+        return count == 0 ? 0 : total / count;
+    }
+
+    /**
+     * @param percentile 0-100
+     * @return a value at least as large as the given share of the recorded values,
+     * rounded up to its bucket, 0 if there are none
+     */
+    public long getPercentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return Math.min(bucketEnd(i), max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Values below 64 get a bucket each, above that each power of two is split in 32
+     */
+    private static int bucket(long value) {
+        int exponent = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        if (exponent <= 0) {
+            return (int) value;
+        }
+        if (exponent > MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        return exponent * SUB_BUCKETS + (int) (value >>> exponent);
+    }
+
+    /**
+     * @return the largest value that falls in the bucket
+     */
+    private static long bucketEnd(int bucket) {
+        if (bucket < 2 * SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS - 1;
+        long mantissa = bucket % SUB_BUCKETS + SUB_BUCKETS;
+        return ((mantissa + 1) << exponent) - 1;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("n=%d mean=%.1fus p50=%.1fus p99=%.1fus max=%.1fus", count,
+                getMean() / 1e3, getPercentile(50) / 1e3, getPercentile(99) / 1e3, max / 1e3);
+    }
+}
@@ -0,0 +1,150 @@
+package com.jon.sudoku;
+
+/**
+ * This class handles the logic of the sudoku game including
+ * checking for invalid moves and checking.
+ * The game itself validates moves against the {@link Board} model, this full
+ * scan of the grid text is kept as the reference the model is checked against.
+ * Grids of any {@link Geometry} can be checked, the first index of the grid text
+ * being the row.
+ */
+public class Logic {
+
+    /**
+     * This method checks that the number entered is a legal move on a 9x9 grid
+     * @param gridText text of each grid square, "" for empty squares
+     * @return It returns a boolean array indicating the squares which cause the illegal move
+     */
+    public static boolean[][] isLegalMove(String[][] gridText) {
+        return isLegalMove(Geometry.STANDARD, gridText);
+    }
+
+    /**
+     * This method checks that the number entered is a legal move
+     * @param geometry shape of the grid
+     * @param gridText text of each grid square, "" for empty squares
+     * @return It returns a boolean array indicating the squares which cause the illegal move
+     */
+    public static boolean[][] isLegalMove(Geometry geometry, String[][] gridText) {
+        int size = geometry.getSize();
+
+        // Check each column, row and grid for repeating digits
+        // if one is found then set that element in the array to false
+        boolean[][] columnLegalMoves = checkColumn(size, gridText);
+        boolean[][] rowLegalMoves = checkRow(size, gridText);
+        boolean[][] gridLegalMoves = checkGrids(geometry, gridText);
+
+        // holds an array of all invalid positions
+        boolean[][] legalMoves = new boolean[size][size];
+
+        // In each square, check which are legal moves
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                if (columnLegalMoves[i][j] && rowLegalMoves[i][j] && gridLegalMoves[i][j]) {
+                    legalMoves[i][j] = true;
+                } else {
+                    legalMoves[i][j] = false;
+                }
+            }
+        }
+        return legalMoves;
+    }
+
+    /**
+     * Checks each column in grid for repeating digits
+     * @param gridText
+     * @return true for every valid position, false for illegal moves
+     */
+    private static boolean[][] checkColumn(int size, String[][] gridText) {
+        // Set each element in array to true
+        boolean[][] result = initialiseBooleanArray(size);
+        // Go through every column...
+        for (int column = 0; column < size; column++) {
+            // ... and each square in that column ...
+            for (int element = 0; element < size; element++) {
+                // ... and compare with every other grid square
+                for (int element1 = element + 1; element1 < size; element1++) {
+                    // if they are equal and not equal to 0...
+                    if (!(gridText[element][column].equals("")) &&
+                            gridText[element][column].equals(gridText[element1][column])) {
+                        result[element][column] = false;
+                        result[element1][column] = false;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Checks each row in grid for repeating digits
+     * @param gridText
+     * @return true for every valid position, false for illegal moves
+     */
+    private static boolean[][] checkRow(int size, String[][] gridText) {
+        // Set each element in array to true
+        boolean[][] result = initialiseBooleanArray(size);
+        // go through each row
+        for (int row = 0; row < size; row++) {
+            // go through each grid square
+            for (int element = 0; element < size; element++) {
+                // and compare with every other grid square
+                for (int element1 = element + 1; element1 < size; element1++) {
+                    // if they are equal and not equal to 0...
+                    if (!(gridText[row][element].equals("")) &&
+                            gridText[row][element].equals(gridText[row][element1])) {
+                        result[row][element] = false;
+                        result[row][element1] = false;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Check each small grid for repeating digits. The squares of each grid come
+     * from the geometry's unit tables instead of being worked out from the corners.
+     * @param gridText
+     * @return true for every valid position, false for illegal moves
+     */
+    private static boolean[][] checkGrids(Geometry geometry, String[][] gridText) {
+        int size = geometry.getSize();
+        boolean[][] result = initialiseBooleanArray(size);
+
+        // Go through each small sudoku grid...
+        for (int box = 0; box < size; box++) {
+            int[] cells = geometry.unit(2 * size + box);
+            // ... and through each square that grid
+            for (int square = 0; square < size; square++) {
+                int row = geometry.row(cells[square]);
+                int column = geometry.column(cells[square]);
+                // compare text with every other square in the grid
+                for (int otherSquare = square + 1; otherSquare < size; otherSquare++) {
+                    int otherRow = geometry.row(cells[otherSquare]);
+                    int otherColumn = geometry.column(cells[otherSquare]);
+                    if (!gridText[row][column].equals("") &&
+                            gridText[row][column].equals(gridText[otherRow][otherColumn])) {
+                        result[row][column] = false;
+                        result[otherRow][otherColumn] = false;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * This creates a 2d boolean array and sets every value to true;
+     * @return
+     */
+    private static boolean[][] initialiseBooleanArray(int size) {
+        boolean[][] result = new boolean[size][size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                result[i][j] = true;
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,120 @@
+package com.jon.sudoku;
+
+/**
+ * Set of longs kept in one long array with open addressing, for deduplicating
+ * puzzle hashes in bulk. There is no boxing and no object per entry, so tens of
+ * millions of hashes take 8 to 16 bytes each depending on how full the table is.
+ * <p>
+ * Sized up front from the expected number of entries, and doubles if that is
+ * passed. Not thread safe.
+ */
+public class LongHashSet {
+
+    // Largest table an array can hold
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    // Grows once this share of the slots is used
+    private static final double LOAD_FACTOR = 0.75;
+
+    // Marks an empty slot, so 0 itself is tracked on the side
+    private static final long EMPTY = 0;
+
+    private long[] slots;
+    private int shift;
+    private int resizeAt;
+    private int size;
+    private boolean hasEmpty;
+
+    /**
+     * @param expected number of entries the table is sized for without growing
+     */
+    public LongHashSet(int expected) {
+        int capacity = 16;
+        while (capacity < MAX_CAPACITY && capacity * LOAD_FACTOR < expected) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    /**
+     * @param value
+     * @return true if the value wasn't in the set already
+     */
+    public boolean add(long value) {
+        if (value == EMPTY) {
+            if (hasEmpty) {
+                return false;
+            }
+            hasEmpty = true;
+            size++;
+            return true;
+        }
+
+        int mask = slots.length - 1;
+        for (int slot = slot(value); ; slot = (slot + 1) & mask) {
+            long current = slots[slot];
+            if (current == value) {
+                return false;
+            }
+            if (current == EMPTY) {
+                slots[slot] = value;
+                if (++size > resizeAt) {
+                    grow();
+                }
+                return true;
+            }
+        }
+    }
+
+    public boolean contains(long value) {
+        if (value == EMPTY) {
+            return hasEmpty;
+        }
+        int mask = slots.length - 1;
+        for (int slot = slot(value); ; slot = (slot + 1) & mask) {
+            long current = slots[slot];
+            if (current == value) {
+                return true;
+            }
+            if (current == EMPTY) {
+                return false;
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Spreads the value with a multiply and takes the top bits, so values that
+     * differ only in their high bits still land apart
+     */
+    private int slot(long value) {
+        return (int) ((value * 0x9E3779B97F4A7C15L) >>> shift);
+    }
+
+    private void allocate(int capacity) {
+        slots = new long[capacity];
+        shift = 64 - Integer.numberOfTrailingZeros(capacity);
+        resizeAt = (int) Math.min(capacity * LOAD_FACTOR, capacity - 1);
+    }
+
+    private void grow() {
+        if (slots.length == MAX_CAPACITY) {
+            throw new IllegalStateException("Set is full at " + size + " entries");
+        }
+        long[] old = slots;
+        allocate(old.length * 2);
+        int mask = slots.length - 1;
+        for (long value : old) {
+            if (value != EMPTY) {
+                int slot = slot(value);
+                while (slots[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = value;
+            }
+        }
+    }
+}
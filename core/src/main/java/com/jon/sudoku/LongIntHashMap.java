@@ -0,0 +1,132 @@
+package com.jon.sudoku;
+
+/**
+ * Map from longs to non-negative ints kept in two arrays with open addressing,
+ * the same way as {@link LongHashSet}. Used to find the earlier puzzle with a
+ * given hash, so tens of millions of entries take 12 to 24 bytes each.
+ * <p>
+ * Sized up front from the expected number of entries, and doubles if that is
+ * passed. Not thread safe.
+ */
+public class LongIntHashMap {
+
+    // Largest table an array can hold
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    // Grows once this share of the slots is used
+    private static final double LOAD_FACTOR = 0.75;
+
+    // Marks an empty slot, so 0 itself is tracked on the side
+    private static final long EMPTY = 0;
+
+    private long[] keys;
+    private int[] values;
+    private int shift;
+    private int resizeAt;
+    private int size;
+    private int emptyKeyValue = -1;
+
+    /**
+     * @param expected number of entries the table is sized for without growing
+     */
+    public LongIntHashMap(int expected) {
+        int capacity = 16;
+        while (capacity < MAX_CAPACITY && capacity * LOAD_FACTOR < expected) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    /**
+     * @param key
+     * @return the value of the key, -1 if it isn't in the map
+     */
+    public int get(long key) {
+        if (key == EMPTY) {
+            return emptyKeyValue;
+        }
+        int mask = keys.length - 1;
+        for (int slot = slot(key); ; slot = (slot + 1) & mask) {
+            long current = keys[slot];
+            if (current == key) {
+                return values[slot];
+            }
+            if (current == EMPTY) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * @param key
+     * @param value 0 or more, replacing any value the key had
+     */
+    public void put(long key, int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Negative value " + value);
+        }
+        if (key == EMPTY) {
+            if (emptyKeyValue == -1) {
+                size++;
+            }
+            emptyKeyValue = value;
+            return;
+        }
+
+        int mask = keys.length - 1;
+        for (int slot = slot(key); ; slot = (slot + 1) & mask) {
+            long current = keys[slot];
+            if (current == key) {
+                values[slot] = value;
+                return;
+            }
+            if (current == EMPTY) {
+                keys[slot] = key;
+                values[slot] = value;
+                if (++size > resizeAt) {
+                    grow();
+                }
+                return;
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Spreads the key with a multiply and takes the top bits, so keys that
+     * differ only in their high bits still land apart
+     */
+    private int slot(long key) {
+        return (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        shift = 64 - Integer.numberOfTrailingZeros(capacity);
+        resizeAt = (int) Math.min(capacity * LOAD_FACTOR, capacity - 1);
+    }
+
+    private void grow() {
+        if (keys.length == MAX_CAPACITY) {
+            throw new IllegalStateException("Map is full at " + size + " entries");
+        }
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        allocate(oldKeys.length * 2);
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slot(oldKeys[i]);
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
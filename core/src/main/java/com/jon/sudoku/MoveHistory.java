@@ -0,0 +1,137 @@
+package com.jon.sudoku;
+
+/**
+ * Undo and redo history kept in a ring buffer of packed moves.
+ * <p>
+ * Each move is a single int: bits 0-6 the cell, bits 7-10 the old digit,
+ * bits 11-14 the new digit and bits 15-24 the digits the player ruled in or
+ * out of the cell, as an xor of the old and new masks so the same delta undoes
+ * and redoes it. Recording a move costs no allocation; once the history is full
+ * the oldest moves are dropped.
+ */
+public class MoveHistory {
+
+    private static final int CELL_MASK = 0x7F;
+    private static final int DIGIT_MASK = 0xF;
+    private static final int OLD_SHIFT = 7;
+    private static final int NEW_SHIFT = 11;
+    private static final int ELIMINATED_SHIFT = 15;
+
+    private final int[] moves;
+
+    // Index of the oldest move
+    private int head;
+
+    // Moves in the buffer, including ones that were undone
+    private int size;
+
+    // Moves that can be undone, those after it can be redone
+    private int position;
+
+    /**
+     * @param capacity most moves to remember
+     */
+    public MoveHistory(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        moves = new int[capacity];
+    }
+
+    /**
+     * @param cell
+     * @param oldDigit         digit in the cell before the move
+     * @param newDigit         digit in the cell after the move
+     * @param eliminatedChange ruled out digits that changed, old mask xor new mask
+     * @return the move packed into an int
+     */
+    public static int pack(int cell, int oldDigit, int newDigit, int eliminatedChange) {
+        return cell | oldDigit << OLD_SHIFT | newDigit << NEW_SHIFT | eliminatedChange << ELIMINATED_SHIFT;
+    }
+
+    public static int cell(int move) {
+        return move & CELL_MASK;
+    }
+
+    public static int oldDigit(int move) {
+        return move >>> OLD_SHIFT & DIGIT_MASK;
+    }
+
+    public static int newDigit(int move) {
+        return move >>> NEW_SHIFT & DIGIT_MASK;
+    }
+
+    /**
+     * @param move
+     * @return bitmask of the ruled out digits that changed, bit d for digit d
+     */
+    public static int eliminatedChange(int move) {
+        return move >>> ELIMINATED_SHIFT;
+    }
+
+    /**
+     * Adds a move made by the player, dropping any moves that could be redone
+     *
+     * @param move packed by {@link #pack(int, int, int, int)}
+     */
+    public void record(int move) {
+        size = position;
+        if (size == moves.length) {
+            head = (head + 1) % moves.length;
+            size--;
+        }
+        moves[(head + size) % moves.length] = move;
+        size++;
+        position = size;
+    }
+
+    public boolean canUndo() {
+        return position > 0;
+    }
+
+    public boolean canRedo() {
+        return position < size;
+    }
+
+    /**
+     * Steps back one move. The caller puts the old digit back in the cell.
+     *
+     * @return the move to reverse
+     */
+    public int undo() {
+        if (!canUndo()) {
+            throw new IllegalStateException("Nothing to undo");
+        }
+        position--;
+        return moves[(head + position) % moves.length];
+    }
+
+    /**
+     * Steps forward one undone move. The caller makes the move again.
+     *
+     * @return the move to make
+     */
+    public int redo() {
+        if (!canRedo()) {
+            throw new IllegalStateException("Nothing to redo");
+        }
+        position++;
+        return moves[(head + position - 1) % moves.length];
+    }
+
+    /**
+     * Forgets every move
+     */
+    public void clear() {
+        head = 0;
+        size = 0;
+        position = 0;
+    }
+
+    /**
+     * @return number of moves that can be undone
+     */
+    public int getUndoCount() {
+        return position;
+    }
+}
@@ -0,0 +1,215 @@
+package com.jon.sudoku;
+
+import java.util.Random;
+
+/**
+ * Generates puzzles with a unique solution.
+ * A full grid is built from three randomly filled diagonal boxes, then clues are
+ * removed in symmetric pairs as long as the puzzle keeps a single solution.
+ * The difficulty of a puzzle is the level of the hardest technique the
+ * {@link HintEngine} needs to solve it, puzzles of the wrong level are thrown
+ * away and generated again.
+ * Puzzles depend only on the seed and the kind of solver, so a generator can be replayed.
+ * <p>
+ * Other grid sizes are generated the same way, except that a removal is only kept
+ * when naked and hidden singles still solve the puzzle, which also proves it has one
+ * solution. Searching for a second solution takes minutes on a sparse 25x25 grid,
+ * this takes well under a second. The hint engine only grades 9x9 puzzles, so on
+ * other grids the difficulty is the share of clues kept.
+ */
+public class PuzzleGenerator {
+
+    // Clues to stop at for each difficulty, 0 removes as many as possible
+    // 0 = easy, 1 = medium, 2 = hard
+    private static final int[] TARGET_CLUES = {36, 0, 0};
+
+    // Share of the cells kept as clues on grids other than 9x9, 0 removes as many as possible
+    private static final double[] TARGET_CLUE_SHARES = {0.55, 0.45, 0};
+
+    // Puzzles to try before settling for one of the wrong difficulty
+    private static final int MAX_ATTEMPTS = 20;
+
+    private final Geometry geometry;
+    private final Solver solver;
+    private final HintEngine grader = new HintEngine();
+    private final Random random;
+
+    // False for grids the hint engine can't grade
+    private final boolean graded;
+
+    // Checks uniqueness on the grids that aren't graded
+    private final SinglesSolver singles;
+
+    private final byte[] solution;
+    private final int[] order;
+
+    // Difficulty the grader gave the last puzzle generated
+    private int gradedDifficulty;
+
+    private SolverStats stats;
+
+    /**
+     * Creates a generator of 9x9 puzzles
+     *
+     * @param solver
+     * @param seed
+     */
+    public PuzzleGenerator(Solver solver, long seed) {
+        this(Geometry.STANDARD, solver, seed);
+    }
+
+    /**
+     * @param geometry shape of the puzzles
+     * @param solver   solver for boards of the geometry, see {@link Solvers#create(Geometry)}
+     * @param seed
+     */
+    public PuzzleGenerator(Geometry geometry, Solver solver, long seed) {
+        this.geometry = geometry;
+        this.solver = solver;
+        this.random = new Random(seed);
+        graded = geometry.equals(Geometry.STANDARD);
+        singles = graded ? null : new SinglesSolver(geometry);
+        solution = new byte[geometry.getCells()];
+        order = new int[geometry.getCells()];
+    }
+
+    /**
+     * @param difficulty 0 = easy, 1 = medium, 2 = hard
+     * @return board holding the puzzle digits as givens
+     */
+    public Board generate(int difficulty) {
+        difficulty = Math.max(0, Math.min(difficulty, TARGET_CLUES.length - 1));
+        long start = 0;
+        if (stats != null) {
+            stats.setDifficulty(difficulty);
+            start = System.nanoTime();
+        }
+
+        Board puzzle = null;
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            puzzle = removeClues(difficulty);
+            gradedDifficulty = graded ? grader.grade(puzzle).getDifficulty() : difficulty;
+            if (gradedDifficulty == difficulty) {
+                break;
+            }
+        }
+
+        if (stats != null) {
+            stats.recordGenerate(System.nanoTime() - start);
+        }
+        return puzzle;
+    }
+
+    /**
+     * Difficulty of the last generated puzzle, which differs from the one asked
+     * for when no attempt hit it. Saves grading the puzzle a second time.
+     * On grids other than 9x9 this is the difficulty asked for.
+     *
+     * @return 0 = easy, 1 = medium, 2 = hard
+     */
+    public int getGradedDifficulty() {
+        return gradedDifficulty;
+    }
+
+    /**
+     * Starts or stops collecting stats from the generator, its solver and its grader.
+     * Solve times are recorded against the difficulty being generated.
+     *
+     * @param stats where to collect them, or null to stop
+     */
+    public void setStats(SolverStats stats) {
+        this.stats = stats;
+        solver.setStats(stats);
+        grader.setStats(stats);
+    }
+
+    /**
+     * Fills a grid then empties as many squares as the difficulty allows
+     */
+    private Board removeClues(int difficulty) {
+        int cells = geometry.getCells();
+        int targetClues = graded ? TARGET_CLUES[difficulty] : (int) (cells * TARGET_CLUE_SHARES[difficulty]);
+
+        Board board = new Board(geometry);
+        fillGrid(board);
+
+        // try removing cells in a random order, keeping the removal only if
+        // the puzzle still has one solution and isn't too hard for the difficulty
+        for (int cell = 0; cell < cells; cell++) {
+            order[cell] = cell;
+        }
+        shuffle(order);
+
+        int clues = cells;
+        for (int i = 0; i < cells && clues > targetClues; i++) {
+            int cell = order[i];
+            int mirror = cells - 1 - cell;
+            if (board.get(cell) == 0) {
+                continue;
+            }
+
+            board.set(cell, 0);
+            board.set(mirror, 0);
+            if (canRemove(board, difficulty)) {
+                clues -= cell == mirror ? 1 : 2;
+            } else {
+                board.set(cell, solution[cell]);
+                board.set(mirror, solution[mirror]);
+            }
+        }
+
+        return new Board(geometry, board.toArray());
+    }
+
+    /**
+     * @return true if the puzzle still has one solution and isn't too hard for the difficulty
+     */
+    private boolean canRemove(Board board, int difficulty) {
+        if (!graded) {
+            return singles.solve(board);
+        }
+        return solver.countSolutions(board, 2) == 1 && (difficulty == TARGET_CLUES.length - 1
+                || grader.grade(board).getDifficulty() <= difficulty);
+    }
+
+    /**
+     * Fills the board with a random complete grid.
+     * The boxes down the diagonal don't share any rows or columns so they can be
+     * filled independently, the solver then completes the rest. On a 9x9 grid that
+     * always works, small grids can need a few tries.
+     */
+    private void fillGrid(Board board) {
+        int size = geometry.getSize();
+        int boxRows = geometry.getBoxRows();
+        int boxColumns = geometry.getBoxColumns();
+        int[] digits = new int[size];
+        do {
+            // there are boxRows boxes across the grid and boxColumns down it
+            for (int diagonal = 0; diagonal < Math.min(boxRows, boxColumns); diagonal++) {
+                for (int i = 0; i < size; i++) {
+                    digits[i] = i + 1;
+                }
+                shuffle(digits);
+
+                int firstRow = diagonal * boxRows;
+                int firstColumn = diagonal * boxColumns;
+                for (int i = 0; i < size; i++) {
+                    board.set(geometry.cell(firstRow + i / boxColumns, firstColumn + i % boxColumns), digits[i]);
+                }
+            }
+        } while (!solver.solve(board, solution));
+
+        for (int cell = 0; cell < geometry.getCells(); cell++) {
+            board.set(cell, solution[cell]);
+        }
+    }
+
+    private void shuffle(int[] array) {
+        for (int i = array.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int temp = array[i];
+            array[i] = array[j];
+            array[j] = temp;
+        }
+    }
+}
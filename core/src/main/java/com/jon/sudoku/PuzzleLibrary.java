@@ -0,0 +1,161 @@
+package com.jon.sudoku;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Read only library of puzzles, memory mapped from a file.
+ * <p>
+ * The file starts with a header: the magic "SDKL", a version, the number of
+ * difficulties, then the first record and record count of each difficulty, all
+ * big-endian ints. Records follow, grouped by difficulty, {@link #RECORD_SIZE}
+ * bytes each: cell 2i in the high nibble of byte i and cell 2i + 1 in the low
+ * nibble. Fetching a puzzle reads its 41 bytes straight from the mapping, so
+ * opening a library of a million puzzles neither parses nor copies the file.
+ */
+public class PuzzleLibrary {
+
+    public static final int MAGIC = 0x53444B4C;
+    public static final int VERSION = 1;
+    public static final int RECORD_SIZE = (Board.CELLS + 1) / 2;
+
+    private final ByteBuffer buffer;
+    private final int[] firstRecords;
+    private final int[] counts;
+    private final int recordsStart;
+
+    private PuzzleLibrary(ByteBuffer buffer, int[] firstRecords, int[] counts, int recordsStart) {
+        this.buffer = buffer;
+        this.firstRecords = firstRecords;
+        this.counts = counts;
+        this.recordsStart = recordsStart;
+    }
+
+    /**
+     * Maps a library file and checks its header
+     *
+     * @param file
+     * @throws IOException if the file is not a library or is cut short
+     */
+    public static PuzzleLibrary open(File file) throws IOException {
+        RandomAccessFile in = new RandomAccessFile(file, "r");
+        ByteBuffer buffer;
+        try {
+            // the mapping stays valid once the file is closed
+            buffer = in.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, in.length());
+        } finally {
+            in.close();
+        }
+        return read(buffer);
+    }
+
+    /**
+     * Reads a library held in a buffer, mapped or not
+     *
+     * @param buffer
+     * @throws IOException if the buffer is not a library or is cut short
+     */
+    public static PuzzleLibrary read(ByteBuffer buffer) throws IOException {
+        if (buffer.limit() < 12 || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IOException("Not a puzzle library");
+        }
+        int difficulties = buffer.getInt(8);
+        if (difficulties < 0 || difficulties > (buffer.limit() - 12) / 8) {
+            throw new IOException("Bad puzzle library header");
+        }
+        int recordsStart = headerSize(difficulties);
+
+        int[] firstRecords = new int[difficulties];
+        int[] counts = new int[difficulties];
+        for (int i = 0; i < difficulties; i++) {
+            firstRecords[i] = buffer.getInt(12 + i * 8);
+            counts[i] = buffer.getInt(16 + i * 8);
+            if (firstRecords[i] < 0 || counts[i] < 0
+                    || recordsStart + ((long) firstRecords[i] + counts[i]) * RECORD_SIZE > buffer.limit()) {
+                throw new IOException("Puzzle library is cut short");
+            }
+        }
+        return new PuzzleLibrary(buffer, firstRecords, counts, recordsStart);
+    }
+
+    /**
+     * @param difficulties
+     * @return bytes before the first record
+     */
+    public static int headerSize(int difficulties) {
+        return 12 + difficulties * 8;
+    }
+
+    /**
+     * @param difficulty 0 = easy, 1 = medium, 2 = hard
+     * @return number of puzzles of the difficulty, 0 if the library has none
+     */
+    public int size(int difficulty) {
+        return difficulty >= 0 && difficulty < counts.length ? counts[difficulty] : 0;
+    }
+
+    /**
+     * Reads one puzzle without touching the rest of the file
+     *
+     * @param difficulty 0 = easy, 1 = medium, 2 = hard
+     * @param index      0 to size(difficulty) - 1
+     * @param digits     array of 81 cells the digits are written to
+     */
+    public void get(int difficulty, int index, byte[] digits) {
+        if (index < 0 || index >= size(difficulty)) {
+            throw new IndexOutOfBoundsException("No puzzle " + index + " of difficulty " + difficulty);
+        }
+        int offset = recordsStart + (firstRecords[difficulty] + index) * RECORD_SIZE;
+        for (int cell = 0; cell < Board.CELLS; cell += 2) {
+            int packed = buffer.get(offset + cell / 2);
+            digits[cell] = (byte) (packed >> 4 & 0xF);
+            if (cell + 1 < Board.CELLS) {
+                digits[cell + 1] = (byte) (packed & 0xF);
+            }
+        }
+    }
+
+    /**
+     * @param difficulty 0 = easy, 1 = medium, 2 = hard
+     * @param index      0 to size(difficulty) - 1
+     * @return 9x9 array of digits, 0 for empty squares
+     */
+    public int[][] get(int difficulty, int index) {
+        byte[] digits = new byte[Board.CELLS];
+        get(difficulty, index, digits);
+        int[][] puzzle = new int[Board.SIZE][Board.SIZE];
+        for (int cell = 0; cell < Board.CELLS; cell++) {
+            puzzle[Board.row(cell)][Board.column(cell)] = digits[cell];
+        }
+        return puzzle;
+    }
+
+    /**
+     * Packs the digits of a puzzle into a record
+     *
+     * @param digits 81 cells, 0 for empty squares
+     * @param record array of {@link #RECORD_SIZE} bytes
+     */
+    public static void pack(byte[] digits, byte[] record) {
+        for (int cell = 0; cell < Board.CELLS; cell += 2) {
+            int low = cell + 1 < Board.CELLS ? digits[cell + 1] : 0;
+            record[cell / 2] = (byte) (digits[cell] << 4 | low);
+        }
+    }
+
+    /**
+     * Unpacks a record made by {@link #pack}
+     *
+     * @param record array of {@link #RECORD_SIZE} bytes
+     * @param digits array of 81 cells the digits are written to
+     */
+    public static void unpack(byte[] record, byte[] digits) {
+        for (int cell = 0; cell < Board.CELLS; cell++) {
+            int packed = record[cell / 2];
+            digits[cell] = (byte) (cell % 2 == 0 ? packed >> 4 & 0xF : packed & 0xF);
+        }
+    }
+}
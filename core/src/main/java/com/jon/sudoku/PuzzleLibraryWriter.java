@@ -0,0 +1,104 @@
+package com.jon.sudoku;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Writes a {@link PuzzleLibrary} file. The number of puzzles of each difficulty
+ * has to be known up front so the header can be written first, then puzzles can
+ * be added in any order and each goes straight to its place in its group.
+ */
+public class PuzzleLibraryWriter {
+
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private final int[] firstRecords;
+    private final int[] counts;
+    private final int[] added;
+    private final int recordsStart;
+
+    private final byte[] boardDigits = new byte[Board.CELLS];
+    private final byte[] record = new byte[PuzzleLibrary.RECORD_SIZE];
+    private final ByteBuffer recordBuffer = ByteBuffer.wrap(record);
+
+    /**
+     * @param file   library file to create, replacing any old one
+     * @param counts number of puzzles of each difficulty
+     * @throws IOException
+     */
+    public PuzzleLibraryWriter(File file, int[] counts) throws IOException {
+        this.counts = counts.clone();
+        firstRecords = new int[counts.length];
+        added = new int[counts.length];
+        recordsStart = PuzzleLibrary.headerSize(counts.length);
+
+        ByteBuffer header = ByteBuffer.allocate(recordsStart);
+        header.putInt(PuzzleLibrary.MAGIC);
+        header.putInt(PuzzleLibrary.VERSION);
+        header.putInt(counts.length);
+        int records = 0;
+        for (int i = 0; i < counts.length; i++) {
+            firstRecords[i] = records;
+            header.putInt(records);
+            header.putInt(counts[i]);
+            records += counts[i];
+        }
+        header.flip();
+
+        this.file = new RandomAccessFile(file, "rw");
+        channel = this.file.getChannel();
+        channel.truncate(0);
+        channel.write(header, 0);
+    }
+
+    /**
+     * Adds the next puzzle of a difficulty
+     *
+     * @param difficulty 0 = easy, 1 = medium, 2 = hard
+     * @param puzzle
+     * @throws IOException
+     */
+    public void add(int difficulty, Board puzzle) throws IOException {
+        for (int cell = 0; cell < Board.CELLS; cell++) {
+            boardDigits[cell] = (byte) puzzle.get(cell);
+        }
+        add(difficulty, boardDigits);
+    }
+
+    /**
+     * Adds the next puzzle of a difficulty
+     *
+     * @param difficulty 0 = easy, 1 = medium, 2 = hard
+     * @param digits     81 cells, 0 for empty squares
+     * @throws IOException
+     */
+    public void add(int difficulty, byte[] digits) throws IOException {
+        if (added[difficulty] == counts[difficulty]) {
+            throw new IllegalStateException("Too many puzzles of difficulty " + difficulty);
+        }
+        PuzzleLibrary.pack(digits, record);
+        recordBuffer.clear();
+        long position = recordsStart + (long) (firstRecords[difficulty] + added[difficulty]) * PuzzleLibrary.RECORD_SIZE;
+        while (recordBuffer.hasRemaining()) {
+            channel.write(recordBuffer, position + recordBuffer.position());
+        }
+        added[difficulty]++;
+    }
+
+    /**
+     * Closes the file, checking every puzzle promised in the header was added
+     *
+     * @throws IOException
+     */
+    public void close() throws IOException {
+        file.close();
+        for (int i = 0; i < counts.length; i++) {
+            if (added[i] != counts[i]) {
+                throw new IOException("Expected " + counts[i] + " puzzles of difficulty " + i + " but got " + added[i]);
+            }
+        }
+    }
+}
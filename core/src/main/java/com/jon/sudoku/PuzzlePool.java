@@ -0,0 +1,180 @@
+package com.jon.sudoku;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps puzzles of each difficulty generated ahead of time so a new game can
+ * start without waiting for the generator.
+ * <p>
+ * Puzzles are generated one at a time on a low priority background thread, with
+ * a pause between each one so refilling doesn't compete with the UI for the CPU.
+ * When the pool for a difficulty is empty the puzzle is generated on the calling
+ * thread instead.
+ */
+public class PuzzlePool {
+
+    // 0 = easy, 1 = medium, 2 = hard
+    public static final int DIFFICULTIES = 3;
+
+    private final long refillIntervalMillis;
+    private final List<BlockingQueue<int[][]>> ready = new ArrayList<>();
+
+    // The background generator is only used by the refill thread,
+    // the foreground one by callers when the pool is empty
+    private final PuzzleGenerator backgroundGenerator;
+    private final PuzzleGenerator foregroundGenerator;
+
+    private final AtomicBoolean refilling = new AtomicBoolean();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    private ScheduledExecutorService executor;
+
+    /**
+     * @param capacity             puzzles to keep ready for each difficulty
+     * @param refillIntervalMillis pause between generating background puzzles
+     * @param seed
+     */
+    public PuzzlePool(int capacity, long refillIntervalMillis, long seed) {
+        this.refillIntervalMillis = refillIntervalMillis;
+        for (int i = 0; i < DIFFICULTIES; i++) {
+            ready.add(new ArrayBlockingQueue<int[][]>(capacity));
+        }
+        backgroundGenerator = new PuzzleGenerator(Solvers.create(), seed);
+        foregroundGenerator = new PuzzleGenerator(Solvers.create(), seed + 1);
+    }
+
+    /**
+     * Takes a ready puzzle, or generates one if none are left
+     *
+     * @param difficulty 0 = easy, 1 = medium, 2 = hard
+     * @return 9x9 array of digits, 0 for empty squares
+     */
+    public int[][] take(int difficulty) {
+        int[][] puzzle = ready.get(difficulty).poll();
+        if (puzzle != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+            synchronized (foregroundGenerator) {
+                puzzle = foregroundGenerator.generate(difficulty).toArray();
+            }
+        }
+        refill();
+        return puzzle;
+    }
+
+    /**
+     * Starts topping up the pool in the background if it isn't already
+     */
+    public void refill() {
+        if (refilling.compareAndSet(false, true)) {
+            executor().execute(refillTask);
+        }
+    }
+
+    /**
+     * Stops the background thread, puzzles already generated can still be taken
+     */
+    public synchronized void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    /**
+     * @param difficulty
+     * @return number of puzzles ready for the difficulty
+     */
+    public int size(int difficulty) {
+        return ready.get(difficulty).size();
+    }
+
+    /**
+     * @return number of puzzles taken from the pool
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return number of puzzles generated on the caller's thread because the pool was empty
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    private synchronized ScheduledExecutorService executor() {
+        if (executor == null) {
+            executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "PuzzlePool");
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                }
+            });
+        }
+        return executor;
+    }
+
+    /**
+     * Returns the difficulty with the fewest ready puzzles, or -1 if every pool is full
+     */
+    private int emptiest() {
+        int emptiest = -1;
+        int fewest = Integer.MAX_VALUE;
+        for (int difficulty = 0; difficulty < DIFFICULTIES; difficulty++) {
+            BlockingQueue<int[][]> queue = ready.get(difficulty);
+            if (queue.remainingCapacity() > 0 && queue.size() < fewest) {
+                emptiest = difficulty;
+                fewest = queue.size();
+            }
+        }
+        return emptiest;
+    }
+
+    // Generates one puzzle then schedules itself again until the pool is full
+    private final Runnable refillTask = new Runnable() {
+        @Override
+        public void run() {
+            int difficulty = emptiest();
+            if (difficulty == -1) {
+                refilling.set(false);
+                // a puzzle may have been taken after the check
+                if (emptiest() != -1) {
+                    refill();
+                }
+                return;
+            }
+
+            boolean scheduled = false;
+            try {
+                ready.get(difficulty).offer(backgroundGenerator.generate(difficulty).toArray());
+
+                synchronized (PuzzlePool.this) {
+                    if (executor != null) {
+                        executor.schedule(this, refillIntervalMillis, TimeUnit.MILLISECONDS);
+                        scheduled = true;
+                    }
+                }
+            } finally {
+                // shut down, or the generator threw: the next take starts refilling again
+                if (!scheduled) {
+                    refilling.set(false);
+                }
+            }
+        }
+    };
+}
@@ -0,0 +1,198 @@
+package com.jon.sudoku;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
+
+/**
+ * Streams puzzles out of the usual one puzzle per line text format.
+ * <p>
+ * Each line holds 81 cells, digits 1-9 for givens and '0', '.', '-', '*' or '_'
+ * for empty squares, optionally followed by whitespace and a number such as a
+ * rating. Anything else after the cells is an error. Blank lines and lines
+ * starting with '#' are skipped. Bytes are decoded straight from a fixed buffer
+ * into the caller's digit array, so a file of any size is read in constant
+ * memory without a String per line.
+ */
+public class PuzzleReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    // Value of each byte as a cell, -1 for bytes that can't be a cell
+    private static final byte[] CELL_VALUES = new byte[256];
+
+    static {
+        Arrays.fill(CELL_VALUES, (byte) -1);
+        for (int digit = 1; digit <= Board.SIZE; digit++) {
+            CELL_VALUES['0' + digit] = (byte) digit;
+        }
+        CELL_VALUES['0'] = 0;
+        CELL_VALUES['.'] = 0;
+        CELL_VALUES['-'] = 0;
+        CELL_VALUES['*'] = 0;
+        CELL_VALUES['_'] = 0;
+    }
+
+    private final ReadableByteChannel channel;
+    private final byte[] bytes;
+    private final ByteBuffer buffer;
+
+    // Next byte to decode and the end of the bytes read so far
+    private int position;
+    private int limit;
+
+    // Line of the next puzzle, for error messages
+    private int line = 1;
+
+    // Number after the last puzzle, -1 if it had none
+    private int label;
+
+    // What may follow the cells of a line: whitespace before the label, the
+    // label's digits, or only whitespace once the label has ended
+    private static final int BEFORE_LABEL = 0;
+    private static final int IN_LABEL = 1;
+    private static final int AFTER_LABEL = 2;
+
+    public PuzzleReader(ReadableByteChannel channel) {
+        this(channel, BUFFER_SIZE);
+    }
+
+    PuzzleReader(ReadableByteChannel channel, int bufferSize) {
+        this.channel = channel;
+        bytes = new byte[bufferSize];
+        buffer = ByteBuffer.wrap(bytes);
+    }
+
+    public PuzzleReader(InputStream in) {
+        this(Channels.newChannel(in));
+    }
+
+    /**
+     * @param file
+     * @return a reader of the puzzles in the file
+     * @throws IOException
+     */
+    public static PuzzleReader open(File file) throws IOException {
+        return new PuzzleReader(new FileInputStream(file).getChannel());
+    }
+
+    /**
+     * Reads the next puzzle
+     *
+     * @param digits array of 81 cells the digits are written to, 0 for empty squares
+     * @return false when there are no more puzzles
+     * @throws IOException if a line is not a puzzle
+     */
+    public boolean next(byte[] digits) throws IOException {
+        int cell = 0;
+        boolean comment = false;
+        int trailing = BEFORE_LABEL;
+        boolean separated = false;
+        label = -1;
+
+        while (true) {
+            if (position == limit && !fill()) {
+                if (cell == Board.CELLS) {
+                    return true;
+                }
+                if (cell == 0) {
+                    return false;
+                }
+                throw new IOException("Line " + line + ": puzzle is cut short");
+            }
+
+            // whole puzzle in the buffer, decode it in one go
+            if (cell == 0 && !comment && limit - position >= Board.CELLS && decode(digits)) {
+                cell = Board.CELLS;
+                continue;
+            }
+
+            byte b = bytes[position++];
+            if (b == '\n') {
+                line++;
+                if (cell == Board.CELLS) {
+                    return true;
+                }
+                if (cell != 0) {
+                    throw new IOException("Line " + (line - 1) + ": expected " + Board.CELLS + " cells, got " + cell);
+                }
+                comment = false;
+            } else if (comment) {
+                continue;
+            } else if (cell < Board.CELLS) {
+                if (CELL_VALUES[b & 0xFF] >= 0) {
+                    digits[cell++] = CELL_VALUES[b & 0xFF];
+                } else if (cell == 0 && b == '#') {
+                    comment = true;
+                } else if (cell != 0 || (b != '\r' && b != ' ' && b != '\t')) {
+                    throw new IOException("Line " + line + ": unexpected '" + (char) b + "'");
+                }
+            } else if (b == ' ' || b == '\t' || b == '\r') {
+                separated = true;
+                if (trailing == IN_LABEL) {
+                    trailing = AFTER_LABEL;
+                }
+            } else if (b >= '0' && b <= '9' && separated && trailing != AFTER_LABEL) {
+                label = (label < 0 ? 0 : label * 10) + b - '0';
+                trailing = IN_LABEL;
+            } else {
+                throw new IOException("Line " + line + ": unexpected '" + (char) b + "' after the cells");
+            }
+        }
+    }
+
+    /**
+     * Decodes the 81 cells at the current position
+     *
+     * @return false, leaving the position alone, if any of them isn't a cell
+     */
+    private boolean decode(byte[] digits) {
+        byte[] in = bytes;
+        int start = position;
+        int invalid = 0;
+        for (int cell = 0; cell < Board.CELLS; cell++) {
+            int value = CELL_VALUES[in[start + cell] & 0xFF];
+            digits[cell] = (byte) value;
+            invalid |= value;
+        }
+        if (invalid < 0) {
+            return false;
+        }
+        position = start + Board.CELLS;
+        return true;
+    }
+
+    /**
+     * @return the number following the last puzzle read on its line, -1 if there was none
+     */
+    public int getLabel() {
+        return label;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Reads more bytes into the buffer
+     *
+     * @return false at the end of the input
+     */
+    private boolean fill() throws IOException {
+        buffer.clear();
+        int read;
+        do {
+            read = channel.read(buffer);
+        } while (read == 0);
+        position = 0;
+        limit = Math.max(read, 0);
+        return read > 0;
+    }
+}
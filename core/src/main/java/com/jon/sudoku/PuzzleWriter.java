@@ -0,0 +1,106 @@
+package com.jon.sudoku;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Writes puzzles in the one puzzle per line format read by {@link PuzzleReader},
+ * '0' for empty squares, through a fixed buffer.
+ */
+public class PuzzleWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    // Longest line: 81 cells, a space, a 10 digit label and a newline
+    private static final int MAX_LINE = Board.CELLS + 12;
+
+    private final WritableByteChannel channel;
+    private final byte[] bytes = new byte[BUFFER_SIZE];
+    private final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    private int position;
+
+    public PuzzleWriter(WritableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    public PuzzleWriter(OutputStream out) {
+        this(Channels.newChannel(out));
+    }
+
+    /**
+     * @param file
+     * @return a writer replacing the file
+     * @throws IOException
+     */
+    public static PuzzleWriter create(File file) throws IOException {
+        return new PuzzleWriter(new FileOutputStream(file).getChannel());
+    }
+
+    /**
+     * @param digits 81 cells, 0 for empty squares
+     * @throws IOException
+     */
+    public void write(byte[] digits) throws IOException {
+        write(digits, -1);
+    }
+
+    /**
+     * Writes a puzzle followed by a number such as its difficulty
+     *
+     * @param digits 81 cells, 0 for empty squares
+     * @param label  number written after the puzzle, -1 for none
+     * @throws IOException
+     */
+    public void write(byte[] digits, int label) throws IOException {
+        if (position + MAX_LINE > bytes.length) {
+            flush();
+        }
+        for (int cell = 0; cell < Board.CELLS; cell++) {
+            bytes[position++] = (byte) ('0' + digits[cell]);
+        }
+        if (label >= 0) {
+            bytes[position++] = ' ';
+            int start = position;
+            do {
+                bytes[position++] = (byte) ('0' + label % 10);
+                label /= 10;
+            } while (label > 0);
+            // digits went in backwards
+            for (int i = start, j = position - 1; i < j; i++, j--) {
+                byte temp = bytes[i];
+                bytes[i] = bytes[j];
+                bytes[j] = temp;
+            }
+        }
+        bytes[position++] = '\n';
+    }
+
+    /**
+     * Writes out the buffered lines
+     *
+     * @throws IOException
+     */
+    public void flush() throws IOException {
+        buffer.clear();
+        buffer.limit(position);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        position = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+}
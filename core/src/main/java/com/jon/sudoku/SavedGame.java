@@ -0,0 +1,108 @@
+package com.jon.sudoku;
+
+import java.io.IOException;
+
+/**
+ * A game in progress and its compact binary snapshot.
+ * <p>
+ * The snapshot is a 4 byte header (magic, version, difficulty) followed by one
+ * big-endian short per cell: bits 0-3 hold the digit, bit 4 is set for givens
+ * and bits 6-14 hold the digits the player ruled out of the cell. The rest of
+ * the candidates follow from the board, so 166 bytes describe the whole game.
+ */
+public class SavedGame {
+
+    public static final int SNAPSHOT_SIZE = 4 + Board.CELLS * 2;
+
+    private static final byte MAGIC_0 = 'S';
+    private static final byte MAGIC_1 = 'D';
+    private static final byte VERSION = 1;
+
+    private static final int DIGIT_MASK = 0xF;
+    private static final int GIVEN_BIT = 1 << 4;
+    private static final int ELIMINATED_SHIFT = 5;
+
+    private final Board board;
+    private final Candidates candidates;
+
+    // 0 = easy, 1 = medium, 2 = hard
+    private final int difficulty;
+
+    public SavedGame(Board board, Candidates candidates, int difficulty) {
+        this.board = board;
+        this.candidates = candidates;
+        this.difficulty = difficulty;
+    }
+
+    public Board getBoard() {
+        return board;
+    }
+
+    public Candidates getCandidates() {
+        return candidates;
+    }
+
+    public int getDifficulty() {
+        return difficulty;
+    }
+
+    /**
+     * @return the snapshot of the game, {@link #SNAPSHOT_SIZE} bytes long
+     */
+    public byte[] toBytes() {
+        byte[] bytes = new byte[SNAPSHOT_SIZE];
+        bytes[0] = MAGIC_0;
+        bytes[1] = MAGIC_1;
+        bytes[2] = VERSION;
+        bytes[3] = (byte) difficulty;
+        for (int cell = 0; cell < Board.CELLS; cell++) {
+            int packed = board.get(cell)
+                    | (board.isGiven(cell) ? GIVEN_BIT : 0)
+                    | candidates.getEliminated(cell) << ELIMINATED_SHIFT;
+            bytes[4 + cell * 2] = (byte) (packed >> 8);
+            bytes[5 + cell * 2] = (byte) packed;
+        }
+        return bytes;
+    }
+
+    /**
+     * Reads a game back from its snapshot
+     *
+     * @param bytes snapshot written by {@link #toBytes()}
+     * @throws IOException if the bytes are not a valid snapshot
+     */
+    public static SavedGame fromBytes(byte[] bytes) throws IOException {
+        if (bytes == null || bytes.length < SNAPSHOT_SIZE
+                || bytes[0] != MAGIC_0 || bytes[1] != MAGIC_1 || bytes[2] != VERSION) {
+            throw new IOException("Not a saved game");
+        }
+
+        // givens have to be placed before the player's digits
+        int[][] givens = new int[Board.SIZE][Board.SIZE];
+        int[] packed = new int[Board.CELLS];
+        for (int cell = 0; cell < Board.CELLS; cell++) {
+            packed[cell] = (bytes[4 + cell * 2] & 0xFF) << 8 | (bytes[5 + cell * 2] & 0xFF);
+            if ((packed[cell] & DIGIT_MASK) > Board.SIZE) {
+                throw new IOException("Bad digit in cell " + cell);
+            }
+            if ((packed[cell] & GIVEN_BIT) != 0) {
+                givens[Board.row(cell)][Board.column(cell)] = packed[cell] & DIGIT_MASK;
+            }
+        }
+
+        Board board = new Board(givens);
+        for (int cell = 0; cell < Board.CELLS; cell++) {
+            if ((packed[cell] & GIVEN_BIT) == 0) {
+                board.set(cell, packed[cell] & DIGIT_MASK);
+            }
+        }
+        Candidates candidates = new Candidates(board);
+        for (int cell = 0; cell < Board.CELLS; cell++) {
+            int eliminated = packed[cell] >> ELIMINATED_SHIFT;
+            if (eliminated != 0) {
+                candidates.setEliminated(cell, eliminated);
+            }
+        }
+        return new SavedGame(board, candidates, bytes[3]);
+    }
+}
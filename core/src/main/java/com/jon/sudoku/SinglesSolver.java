@@ -0,0 +1,110 @@
+package com.jon.sudoku;
+
+/**
+ * Fills a board of any size using only naked and hidden singles.
+ * A board it fills completely has exactly one solution, as no digit was guessed,
+ * so the generator uses it to check uniqueness on grids where a full search for a
+ * second solution is too slow. Each check is polynomial in the grid size.
+ */
+class SinglesSolver {
+
+    private final Geometry geometry;
+    private final int size;
+
+    // Candidates of each cell, 0 once it is filled
+    private final int[] candidates;
+
+    // Digits placed in each unit, rows then columns then boxes
+    private final int[] unitMasks;
+
+    SinglesSolver(Geometry geometry) {
+        this.geometry = geometry;
+        size = geometry.getSize();
+        candidates = new int[geometry.getCells()];
+        unitMasks = new int[3 * size];
+    }
+
+    /**
+     * @param board
+     * @return true if singles alone fill every cell of the board
+     */
+    boolean solve(Board board) {
+        int all = geometry.getAllDigits();
+        int cells = geometry.getCells();
+        for (int unit = 0; unit < unitMasks.length; unit++) {
+            int mask = 0;
+            for (int cell : geometry.unit(unit)) {
+                mask |= 1 << board.get(cell);
+            }
+            unitMasks[unit] = mask & all;
+        }
+        int filled = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            if (board.get(cell) != 0) {
+                candidates[cell] = 0;
+                filled++;
+            } else {
+                candidates[cell] = all & ~(unitMasks[geometry.row(cell)] | unitMasks[size + geometry.column(cell)]
+                        | unitMasks[2 * size + geometry.box(cell)]);
+            }
+        }
+
+        boolean changed = true;
+        while (changed && filled < cells) {
+            changed = false;
+
+            // naked singles
+            for (int cell = 0; cell < cells; cell++) {
+                int mask = candidates[cell];
+                if (mask != 0 && (mask & (mask - 1)) == 0) {
+                    place(cell, Integer.numberOfTrailingZeros(mask));
+                    filled++;
+                    changed = true;
+                }
+            }
+            if (changed) {
+                continue;
+            }
+
+            // hidden singles, digits that fit just one cell of a unit
+            for (int unit = 0; unit < unitMasks.length; unit++) {
+                int[] unitCells = geometry.unit(unit);
+                int once = 0;
+                int twice = 0;
+                for (int cell : unitCells) {
+                    twice |= once & candidates[cell];
+                    once |= candidates[cell];
+                }
+                // a digit with nowhere to go, the board has no solution
+                if ((once | unitMasks[unit]) != all) {
+                    return false;
+                }
+                int hidden = once & ~twice;
+                while (hidden != 0) {
+                    int bit = hidden & -hidden;
+                    hidden ^= bit;
+                    for (int cell : unitCells) {
+                        if ((candidates[cell] & bit) != 0) {
+                            place(cell, Integer.numberOfTrailingZeros(bit));
+                            filled++;
+                            changed = true;
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+        return filled == cells;
+    }
+
+    private void place(int cell, int digit) {
+        int bit = 1 << digit;
+        candidates[cell] = 0;
+        unitMasks[geometry.row(cell)] |= bit;
+        unitMasks[size + geometry.column(cell)] |= bit;
+        unitMasks[2 * size + geometry.box(cell)] |= bit;
+        for (int peer : geometry.peers(cell)) {
+            candidates[peer] &= ~bit;
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package com.jon.sudoku;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers the solutions of the puzzles solved most recently, so checking a
+ * board or revealing a cell of a puzzle seen before doesn't solve it again.
+ * <p>
+ * Puzzles and solutions are kept packed two cells a byte like the records of a
+ * {@link PuzzleLibrary}, 41 bytes each. The least recently used entry is dropped
+ * once the cache is full. Lookups take a lock only for the map itself and solving
+ * happens outside it, so the UI thread can look up solutions while a background
+ * worker fills the cache. The solver passed in must belong to the calling thread.
+ * <p>
+ * The cache can be saved to a file and loaded back, least recently used first so
+ * the order survives a restart. The file holds the magic "SDKC", a version and the
+ * number of entries as big-endian ints, then each packed puzzle and its solution.
+ */
+public class SolutionCache {
+
+    public static final int MAGIC = 0x53444B43;
+    public static final int VERSION = 1;
+
+    private static final int RECORD_SIZE = PuzzleLibrary.RECORD_SIZE;
+
+    private final int capacity;
+
+    // Packed solution of each packed puzzle, least recently used first
+    private final LinkedHashMap<Key, byte[]> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * @param capacity most solutions to keep
+     */
+    public SolutionCache(final int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        entries = new LinkedHashMap<Key, byte[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, byte[]> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Looks up a solution without solving
+     *
+     * @param puzzle   81 cells, 0 for empty squares
+     * @param solution array of 81 cells the solution is written to
+     * @return true if the solution was cached
+     */
+    public boolean get(byte[] puzzle, byte[] solution) {
+        byte[] packed;
+        synchronized (this) {
+            packed = entries.get(Key.of(puzzle));
+        }
+        if (packed == null) {
+            misses.incrementAndGet();
+            return false;
+        }
+        hits.incrementAndGet();
+        PuzzleLibrary.unpack(packed, solution);
+        return true;
+    }
+
+    /**
+     * @param puzzle   81 cells, 0 for empty squares
+     * @param solution 81 digits solving the puzzle
+     */
+    public void put(byte[] puzzle, byte[] solution) {
+        byte[] packed = new byte[RECORD_SIZE];
+        PuzzleLibrary.pack(solution, packed);
+        synchronized (this) {
+            entries.put(Key.of(puzzle), packed);
+        }
+    }
+
+    /**
+     * Looks up a solution, solving the puzzle and caching its solution on a miss
+     *
+     * @param puzzle   81 cells, 0 for empty squares
+     * @param solver   used on a miss, owned by the calling thread
+     * @param solution array of 81 cells the solution is written to
+     * @return false if the puzzle has no solution
+     */
+    public boolean solve(byte[] puzzle, Solver solver, byte[] solution) {
+        if (get(puzzle, solution)) {
+            return true;
+        }
+        if (!solver.solve(new Board(puzzle), solution)) {
+            return false;
+        }
+        put(puzzle, solution);
+        return true;
+    }
+
+    /**
+     * @param puzzle 9x9 array of digits, 0 for empty squares
+     * @param solver used on a miss, owned by the calling thread
+     * @return 9x9 array of the solution's digits, or null if the puzzle has no solution
+     */
+    public int[][] solve(int[][] puzzle, Solver solver) {
+        byte[] digits = new byte[Board.CELLS];
+        for (int cell = 0; cell < Board.CELLS; cell++) {
+            digits[cell] = (byte) puzzle[Board.row(cell)][Board.column(cell)];
+        }
+        byte[] solution = new byte[Board.CELLS];
+        if (!solve(digits, solver, solution)) {
+            return null;
+        }
+        return new Board(solution).toArray();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return number of lookups that found a solution
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * @return number of lookups that found nothing
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return share of lookups that found a solution, 0 before any lookup
+     */
+    public double getHitRate() {
+        long hits = getHits();
+        long lookups = hits + getMisses();
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    /**
+     * Writes the cache to a temporary file and renames it over the file, so a
+     * crash part way leaves the old file whole
+     *
+     * @param file
+     * @throws IOException
+     */
+    public void save(File file) throws IOException {
+        snapshot().save(file);
+    }
+
+    /**
+     * Copies the entries, so they can be saved on another thread while the cache is in use
+     *
+     * @return the entries as they are now, least recently used first
+     */
+    public synchronized Snapshot snapshot() {
+        return new Snapshot(entries.keySet().toArray(new Key[entries.size()]),
+                entries.values().toArray(new byte[entries.size()][]));
+    }
+
+    /**
+     * Adds the entries of a saved cache as if they had just been used, in the order
+     * they were saved. Entries already cached are kept and the counts are untouched.
+     *
+     * @param file
+     * @throws IOException if the file is not a solution cache or is cut short
+     */
+    public void load(File file) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        try {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a solution cache");
+            }
+            int count = in.readInt();
+            if (count < 0) {
+                throw new IOException("Bad solution cache header");
+            }
+            for (int i = 0; i < count; i++) {
+                byte[] puzzle = new byte[RECORD_SIZE];
+                byte[] solution = new byte[RECORD_SIZE];
+                in.readFully(puzzle);
+                in.readFully(solution);
+                synchronized (this) {
+                    entries.put(new Key(puzzle), solution);
+                }
+            }
+        } catch (EOFException e) {
+            throw new IOException("Solution cache is cut short", e);
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Entries of the cache at one moment, ready to be saved
+     */
+    public static final class Snapshot {
+        private final Key[] keys;
+        private final byte[][] solutions;
+
+        private Snapshot(Key[] keys, byte[][] solutions) {
+            this.keys = keys;
+            this.solutions = solutions;
+        }
+
+        public int size() {
+            return keys.length;
+        }
+
+        /**
+         * Writes the entries like {@link SolutionCache#save(File)}
+         *
+         * @param file
+         * @throws IOException
+         */
+        public void save(File file) throws IOException {
+            File temp = new File(file.getPath() + ".tmp");
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+            try {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(keys.length);
+                for (int i = 0; i < keys.length; i++) {
+                    out.write(keys[i].packed);
+                    out.write(solutions[i]);
+                }
+            } finally {
+                out.close();
+            }
+            if (!temp.renameTo(file)) {
+                throw new IOException("Could not replace " + file);
+            }
+        }
+    }
+
+    /**
+     * A packed puzzle with its hash worked out once
+     */
+    private static final class Key {
+        final byte[] packed;
+        final int hash;
+
+        Key(byte[] packed) {
+            this.packed = packed;
+            hash = Arrays.hashCode(packed);
+        }
+
+        static Key of(byte[] digits) {
+            byte[] packed = new byte[RECORD_SIZE];
+            PuzzleLibrary.pack(digits, packed);
+            return new Key(packed);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && ((Key) o).hash == hash && Arrays.equals(((Key) o).packed, packed);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
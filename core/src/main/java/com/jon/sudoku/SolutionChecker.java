@@ -0,0 +1,74 @@
+package com.jon.sudoku;
+
+/**
+ * Checks entries against the solution of the puzzle, catching a wrong digit
+ * straight away instead of once it runs into a conflict.
+ * <p>
+ * The solution is kept as an array of digits, so checking an entry is one
+ * comparison, and the number of wrong entries on the board is kept up to date
+ * move by move instead of by scanning the grid.
+ */
+public class SolutionChecker {
+
+    // Digit of each cell in the solution
+    private final byte[] solution;
+
+    // Filled cells whose digit isn't the solution's
+    private int mistakes;
+
+    /**
+     * @param board    the game, its current entries are counted
+     * @param solution digit of each cell in the solution of the board's puzzle
+     */
+    public SolutionChecker(Board board, byte[] solution) {
+        if (solution.length != Board.CELLS) {
+            throw new IllegalArgumentException("Solution needs " + Board.CELLS + " cells");
+        }
+        this.solution = solution.clone();
+        for (int cell = 0; cell < Board.CELLS; cell++) {
+            if (isWrong(cell, board.get(cell))) {
+                mistakes++;
+            }
+        }
+    }
+
+    /**
+     * @param cell
+     * @param digit 1-9, or 0 for an empty square which is never wrong
+     * @return true if the digit isn't the one in the solution
+     */
+    public boolean isWrong(int cell, int digit) {
+        return digit != 0 && digit != solution[cell];
+    }
+
+    /**
+     * Keeps the mistake count up to date after a move
+     *
+     * @param cell
+     * @param oldDigit digit in the cell before the move, 0 if it was empty
+     * @param digit    digit in the cell after the move, 0 if it was cleared
+     */
+    public void update(int cell, int oldDigit, int digit) {
+        if (isWrong(cell, oldDigit)) {
+            mistakes--;
+        }
+        if (isWrong(cell, digit)) {
+            mistakes++;
+        }
+    }
+
+    /**
+     * @return number of filled cells holding the wrong digit
+     */
+    public int getMistakes() {
+        return mistakes;
+    }
+
+    /**
+     * @param cell
+     * @return the digit of the cell in the solution
+     */
+    public int getSolution(int cell) {
+        return solution[cell];
+    }
+}
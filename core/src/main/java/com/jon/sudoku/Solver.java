@@ -0,0 +1,34 @@
+package com.jon.sudoku;
+
+/**
+ * A sudoku solver. Implementations keep their working state between calls
+ * so one instance should only be used by one thread at a time.
+ */
+public interface Solver {
+
+    /**
+     * Counts the solutions of the board, stopping early once limit is reached.
+     * A board with conflicting digits has no solutions.
+     *
+     * @param board
+     * @param limit the most solutions to look for, 2 is enough to check uniqueness
+     * @return the number of solutions found, at most limit
+     */
+    int countSolutions(Board board, int limit);
+
+    /**
+     * Finds the first solution of the board
+     *
+     * @param board
+     * @param solution array with a digit for each cell the solution is written to
+     * @return true if the board has a solution
+     */
+    boolean solve(Board board, byte[] solution);
+
+    /**
+     * Starts or stops collecting search counts and solve times
+     *
+     * @param stats where to collect them, or null to stop
+     */
+    void setStats(SolverStats stats);
+}
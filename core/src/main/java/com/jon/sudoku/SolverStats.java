@@ -0,0 +1,148 @@
+package com.jon.sudoku;
+
+/**
+ * Counters and latencies collected by solvers, the hint engine and the generator
+ * once they are given a stats object. Without one they skip all of it, so turning
+ * stats off costs a null check.
+ * <p>
+ * Solve and generation times go into a histogram for the difficulty being
+ * worked on, set by the generator, or 0 when a solver is used on its own.
+ * Counters are plain fields so, like the solvers, one stats object should only be
+ * used by one thread; {@link #add} merges the stats of several threads.
+ */
+public class SolverStats {
+
+    public static final int DIFFICULTIES = 3;
+
+    // Search nodes entered, dead ends hit and cells filled by propagation instead of guessing
+    long nodes;
+    long backtracks;
+    long propagations;
+
+    // Times each technique was applied by the hint engine
+    final long[] techniques = new long[Technique.values().length];
+
+    private final LatencyHistogram[] solveTimes = new LatencyHistogram[DIFFICULTIES];
+    private final LatencyHistogram[] generateTimes = new LatencyHistogram[DIFFICULTIES];
+
+    // 0 = easy, 1 = medium, 2 = hard
+    private int difficulty;
+
+    public SolverStats() {
+        for (int i = 0; i < DIFFICULTIES; i++) {
+            solveTimes[i] = new LatencyHistogram();
+            generateTimes[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * Sets the difficulty that following solve times are recorded against
+     *
+     * @param difficulty 0 = easy, 1 = medium, 2 = hard
+     */
+    public void setDifficulty(int difficulty) {
+        this.difficulty = Math.max(0, Math.min(difficulty, DIFFICULTIES - 1));
+    }
+
+    void recordSolve(long nanos) {
+        solveTimes[difficulty].record(nanos);
+    }
+
+    void recordGenerate(long nanos) {
+        generateTimes[difficulty].record(nanos);
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getBacktracks() {
+        return backtracks;
+    }
+
+    public long getPropagations() {
+        return propagations;
+    }
+
+    /**
+     * @param technique
+     * @return times the hint engine applied the technique
+     */
+    public long getTechniqueCount(Technique technique) {
+        return techniques[technique.ordinal()];
+    }
+
+    /**
+     * @param difficulty 0 = easy, 1 = medium, 2 = hard
+     * @return times of each countSolutions or solve call
+     */
+    public LatencyHistogram getSolveTimes(int difficulty) {
+        return solveTimes[difficulty];
+    }
+
+    /**
+     * @param difficulty 0 = easy, 1 = medium, 2 = hard
+     * @return times of each generated puzzle
+     */
+    public LatencyHistogram getGenerateTimes(int difficulty) {
+        return generateTimes[difficulty];
+    }
+
+    /**
+     * Adds the counts and times of another stats object to this one
+     *
+     * @param other
+     */
+    public void add(SolverStats other) {
+        nodes += other.nodes;
+        backtracks += other.backtracks;
+        propagations += other.propagations;
+        for (int i = 0; i < techniques.length; i++) {
+            techniques[i] += other.techniques[i];
+        }
+        for (int i = 0; i < DIFFICULTIES; i++) {
+            solveTimes[i].add(other.solveTimes[i]);
+            generateTimes[i].add(other.generateTimes[i]);
+        }
+    }
+
+    public void reset() {
+        nodes = 0;
+        backtracks = 0;
+        propagations = 0;
+        for (int i = 0; i < techniques.length; i++) {
+            techniques[i] = 0;
+        }
+        for (int i = 0; i < DIFFICULTIES; i++) {
+            solveTimes[i].reset();
+            generateTimes[i].reset();
+        }
+    }
+
+    /**
+     * @return a few lines summing up the stats
+     */
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder();
+        report.append("nodes=").append(nodes)
+                .append(" backtracks=").append(backtracks)
+                .append(" propagations=").append(propagations).append('\n');
+        report.append("techniques:");
+        for (Technique technique : Technique.values()) {
+            if (techniques[technique.ordinal()] > 0) {
+                report.append(' ').append(technique).append('=').append(techniques[technique.ordinal()]);
+            }
+        }
+        report.append('\n');
+        for (int i = 0; i < DIFFICULTIES; i++) {
+            if (solveTimes[i].getCount() > 0) {
+                report.append("solve[").append(i).append("] ").append(solveTimes[i]).append('\n');
+            }
+            if (generateTimes[i].getCount() > 0) {
+                report.append("generate[").append(i).append("] ").append(generateTimes[i]).append('\n');
+            }
+        }
+        return report.toString();
+    }
+}
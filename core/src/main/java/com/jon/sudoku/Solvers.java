@@ -0,0 +1,48 @@
+package com.jon.sudoku;
+
+/**
+ * Creates solvers by name, so the backend can be picked by configuration.
+ * Without a name the "sudoku.solver" system property is used, falling back to
+ * the bitboard solver, the fastest of the three. Only the dancing links solver
+ * handles boards other than 9x9.
+ */
+public final class Solvers {
+
+    public static final String PROPERTY = "sudoku.solver";
+    public static final String DEFAULT = "bitboard";
+
+    private Solvers() {
+    }
+
+    /**
+     * @return a new solver of the configured kind
+     */
+    public static Solver create() {
+        return create(System.getProperty(PROPERTY, DEFAULT));
+    }
+
+    /**
+     * @param geometry
+     * @return a new solver of the configured kind for 9x9 boards, and a dancing
+     * links solver for boards of any other size
+     */
+    public static Solver create(Geometry geometry) {
+        return geometry.equals(Geometry.STANDARD) ? create() : new DancingLinksSolver(geometry);
+    }
+
+    /**
+     * @param name "backtracking", "dlx" or "bitboard"
+     * @return a new solver
+     */
+    public static Solver create(String name) {
+        switch (name) {
+            case "backtracking":
+                return new BacktrackingSolver();
+            case "dlx":
+                return new DancingLinksSolver();
+            case "bitboard":
+                return new BitboardSolver();
+        }
+        throw new IllegalArgumentException("Unknown solver: " + name);
+    }
+}
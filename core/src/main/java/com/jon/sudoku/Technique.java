@@ -0,0 +1,34 @@
+package com.jon.sudoku;
+
+/**
+ * Deduction techniques used by the {@link HintEngine}, easiest first.
+ * Each technique belongs to a difficulty level which matches the level picked
+ * when starting a game: 0 = easy, 1 = medium, 2 = hard.
+ */
+public enum Technique {
+    NAKED_SINGLE(0),
+    HIDDEN_SINGLE(0),
+    NAKED_PAIR(1),
+    HIDDEN_PAIR(1),
+    POINTING_PAIR(1),
+    BOX_LINE_REDUCTION(1),
+    NAKED_TRIPLE(1),
+    HIDDEN_TRIPLE(1),
+    X_WING(2),
+    SWORDFISH(2),
+    // The puzzle can't be finished with the techniques above
+    GUESS(2);
+
+    private final int difficulty;
+
+    Technique(int difficulty) {
+        this.difficulty = difficulty;
+    }
+
+    /**
+     * @return 0 = easy, 1 = medium, 2 = hard
+     */
+    public int getDifficulty() {
+        return difficulty;
+    }
+}
@@ -0,0 +1,245 @@
+package com.jon.sudoku;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Runs tasks with the test thread standing in for the UI thread, callbacks only
+ * run when the test drains the delivery queue.
+ */
+public class BackgroundTasksTest {
+
+    private final BlockingQueue<Runnable> uiQueue = new LinkedBlockingQueue<>();
+    private final BackgroundTasks tasks = new BackgroundTasks(new Executor() {
+        @Override
+        public void execute(Runnable runnable) {
+            uiQueue.add(runnable);
+        }
+    });
+    private final Thread uiThread = Thread.currentThread();
+
+    @After
+    public void tearDown() {
+        tasks.shutdown();
+    }
+
+    @Test
+    public void result_isDeliveredOnTheUiThread() throws Exception {
+        final List<Integer> results = new ArrayList<>();
+        tasks.submit("solve", new Callable<Integer>() {
+            @Override
+            public Integer call() throws Exception {
+                assertNotSame(uiThread, Thread.currentThread());
+                return new BitboardSolver().countSolutions(new Board(GeneratePuzzle.fixture(2)), 2);
+            }
+        }, new BackgroundTasks.Callback<Integer>() {
+            @Override
+            public void onResult(Integer result) {
+                assertSame(uiThread, Thread.currentThread());
+                results.add(result);
+            }
+        });
+
+        assertTrue(tasks.isPending("solve"));
+        runNextOnUiThread();
+        assertEquals(1, results.size());
+        assertEquals(1, (int) results.get(0));
+        assertFalse(tasks.isPending("solve"));
+    }
+
+    @Test
+    public void newerTask_supersedesQueuedOnes() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        blockWorker(release);
+
+        // rapid taps queue up behind the busy worker without waiting for it
+        final AtomicInteger runs = new AtomicInteger();
+        final List<Integer> results = new ArrayList<>();
+        for (int tap = 0; tap < 50; tap++) {
+            final int value = tap;
+            tasks.submit("hint", new Callable<Integer>() {
+                @Override
+                public Integer call() throws Exception {
+                    runs.incrementAndGet();
+                    return value;
+                }
+            }, new BackgroundTasks.Callback<Integer>() {
+                @Override
+                public void onResult(Integer result) {
+                    results.add(result);
+                }
+            });
+        }
+        release.countDown();
+
+        runNextOnUiThread();
+        runNextOnUiThread();
+        assertEquals(1, runs.get());
+        assertEquals(1, results.size());
+        assertEquals(49, (int) results.get(0));
+        assertTrue(uiQueue.isEmpty());
+    }
+
+    @Test
+    public void cancel_interruptsRunningTask() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        final AtomicInteger delivered = new AtomicInteger();
+        tasks.submit("solve", new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                started.countDown();
+                try {
+                    Thread.sleep(10000);
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                    throw e;
+                }
+                return null;
+            }
+        }, new BackgroundTasks.Callback<Void>() {
+            @Override
+            public void onResult(Void result) {
+                delivered.incrementAndGet();
+            }
+
+            @Override
+            public void onError(Exception e) {
+                delivered.incrementAndGet();
+            }
+        });
+
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        tasks.cancel("solve");
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        assertFalse(tasks.isPending("solve"));
+
+        // the worker is free again and nothing was delivered for the cancelled task
+        submitAndWait("next");
+        assertEquals(0, delivered.get());
+    }
+
+    @Test
+    public void executedWork_survivesShutdown() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final AtomicInteger hintsRun = new AtomicInteger();
+        final AtomicInteger saves = new AtomicInteger();
+        tasks.submit("search", new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                started.countDown();
+                Thread.sleep(10000);
+                return null;
+            }
+        }, new BackgroundTasks.Callback<Void>() {
+            @Override
+            public void onResult(Void result) {
+            }
+        });
+        tasks.submit("hint", new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                hintsRun.incrementAndGet();
+                return null;
+            }
+        }, new BackgroundTasks.Callback<Void>() {
+            @Override
+            public void onResult(Void result) {
+            }
+        });
+        tasks.execute(new Runnable() {
+            @Override
+            public void run() {
+                saves.incrementAndGet();
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // the running search is interrupted and the queued hint dropped, the save still runs
+        tasks.shutdown();
+        assertTrue(tasks.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(1, saves.get());
+        assertEquals(0, hintsRun.get());
+        assertTrue(uiQueue.isEmpty());
+    }
+
+    @Test
+    public void error_isDeliveredToOnError() throws Exception {
+        final List<Exception> errors = new ArrayList<>();
+        tasks.submit("solve", new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                throw new IllegalStateException("no solution");
+            }
+        }, new BackgroundTasks.Callback<Void>() {
+            @Override
+            public void onResult(Void result) {
+                fail("task threw");
+            }
+
+            @Override
+            public void onError(Exception e) {
+                errors.add(e);
+            }
+        });
+
+        runNextOnUiThread();
+        assertEquals(1, errors.size());
+        assertEquals("no solution", errors.get(0).getMessage());
+    }
+
+    /**
+     * Keeps the worker busy until the latch is released
+     */
+    private void blockWorker(final CountDownLatch release) throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        tasks.submit("block", new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                started.countDown();
+                release.await();
+                return null;
+            }
+        }, new BackgroundTasks.Callback<Void>() {
+            @Override
+            public void onResult(Void result) {
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+    }
+
+    private void submitAndWait(String key) throws Exception {
+        final AtomicInteger done = new AtomicInteger();
+        tasks.submit(key, new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                return null;
+            }
+        }, new BackgroundTasks.Callback<Void>() {
+            @Override
+            public void onResult(Void result) {
+                done.incrementAndGet();
+            }
+        });
+        runNextOnUiThread();
+        assertEquals(1, done.get());
+    }
+
+    private void runNextOnUiThread() throws Exception {
+        Runnable runnable = uiQueue.poll(5, TimeUnit.SECONDS);
+        assertNotNull("nothing was delivered", runnable);
+        runnable.run();
+    }
+}
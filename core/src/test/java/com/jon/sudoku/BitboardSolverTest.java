@@ -0,0 +1,39 @@
+package com.jon.sudoku;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Runs the solver checks against the bitboard solver.
+ */
+public class BitboardSolverTest extends SolverTest {
+
+    @Override
+    protected Solver createSolver() {
+        return new BitboardSolver();
+    }
+
+    @Test
+    public void generatedPuzzles_matchDancingLinks() throws Exception {
+        Solver solver = createSolver();
+        Solver reference = new DancingLinksSolver();
+        PuzzleGenerator generator = new PuzzleGenerator(reference, 12);
+        byte[] solution = new byte[Board.CELLS];
+        for (int i = 0; i < 30; i++) {
+            Board board = generator.generate(i % 3);
+            assertTrue(solver.solve(board, solution));
+            assertSolves(board, solution);
+
+            // fewer clues, usually several solutions
+            Board copy = new Board();
+            int kept = 0;
+            for (int cell = 0; cell < Board.CELLS; cell++) {
+                if (board.get(cell) != 0 && kept++ % 4 != 0) {
+                    copy.set(cell, board.get(cell));
+                }
+            }
+            assertEquals(reference.countSolutions(copy, 50), solver.countSolutions(copy, 50));
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.jon.sudoku;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the board model against the full grid scan in {@link Logic}.
+ */
+public class BoardTest {
+
+    @Test
+    public void puzzle_loadsGivens() throws Exception {
+        int[][] puzzle = GeneratePuzzle.fixture(0);
+        Board board = new Board(puzzle);
+        for (int row = 0; row < 9; row++) {
+            for (int column = 0; column < 9; column++) {
+                int cell = Board.cell(row, column);
+                assertEquals(puzzle[row][column], board.get(cell));
+                assertEquals(puzzle[row][column] != 0, board.isGiven(cell));
+                assertFalse(board.isConflicting(cell));
+            }
+        }
+    }
+
+    @Test
+    public void duplicate_isConflictingUntilCleared() throws Exception {
+        Board board = new Board();
+        board.set(Board.cell(0, 0), 5);
+        board.set(Board.cell(0, 8), 5);
+        assertTrue(board.isConflicting(Board.cell(0, 0)));
+        assertTrue(board.isConflicting(Board.cell(0, 8)));
+        assertFalse(board.canPlace(Board.cell(0, 4), 5));
+
+        board.set(Board.cell(0, 8), 0);
+        assertFalse(board.isConflicting(Board.cell(0, 0)));
+        assertEquals(1 << 5, board.rowMask(0));
+        assertEquals(1 << 5, board.boxMask(0));
+        assertEquals(0, board.columnMask(8));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void given_cannotBeChanged() throws Exception {
+        int[][] puzzle = GeneratePuzzle.fixture(0);
+        Board board = new Board(puzzle);
+        for (int cell = 0; cell < Board.CELLS; cell++) {
+            if (board.isGiven(cell)) {
+                board.set(cell, 0);
+            }
+        }
+    }
+
+    @Test
+    public void randomMoves_matchGridScan() throws Exception {
+        Random random = new Random(42);
+        Board board = new Board();
+        String[][] text = new String[9][9];
+        for (String[] row : text) {
+            Arrays.fill(row, "");
+        }
+
+        for (int move = 0; move < 2000; move++) {
+            int cell = random.nextInt(Board.CELLS);
+            int digit = random.nextInt(10);
+            board.set(cell, digit);
+            text[Board.row(cell)][Board.column(cell)] = digit == 0 ? "" : "" + digit;
+
+            boolean[][] legal = Logic.isLegalMove(text);
+            boolean anyConflict = false;
+            for (int i = 0; i < Board.CELLS; i++) {
+                assertEquals(!legal[Board.row(i)][Board.column(i)], board.isConflicting(i));
+                anyConflict |= board.isConflicting(i);
+            }
+            assertEquals(anyConflict, board.getConflictCount() > 0);
+        }
+    }
+
+    @Test
+    public void randomMoves_reportFlippedCells() throws Exception {
+        Random random = new Random(7);
+        Board board = new Board();
+        int[] flipped = new int[20];
+        boolean[] before = new boolean[Board.CELLS];
+
+        for (int move = 0; move < 2000; move++) {
+            for (int cell = 0; cell < Board.CELLS; cell++) {
+                before[cell] = board.isConflicting(cell);
+            }
+            int moved = random.nextInt(Board.CELLS);
+            int count = board.set(moved, random.nextInt(10), flipped);
+
+            boolean[] reported = new boolean[Board.CELLS];
+            for (int i = 0; i < count; i++) {
+                reported[flipped[i]] = true;
+            }
+            for (int cell = 0; cell < Board.CELLS; cell++) {
+                if (cell != moved) {
+                    assertEquals(before[cell] != board.isConflicting(cell), reported[cell]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void counts_trackSolvedState() throws Exception {
+        byte[] solution = new byte[Board.CELLS];
+        Board board = new Board(GeneratePuzzle.fixture(1));
+        assertTrue(new DancingLinksSolver().solve(board, solution));
+
+        int empty = -1;
+        for (int cell = 0; cell < Board.CELLS; cell++) {
+            if (!board.isGiven(cell)) {
+                board.set(cell, solution[cell]);
+                empty = cell;
+            }
+        }
+        assertTrue(board.isSolved());
+
+        // a wrong digit fills the grid but conflicts
+        board.set(empty, solution[empty] % 9 + 1);
+        assertEquals(Board.CELLS, board.getFilledCount());
+        assertTrue(board.getConflictCount() > 0);
+        assertFalse(board.isSolved());
+
+        board.set(empty, 0);
+        assertEquals(Board.CELLS - 1, board.getFilledCount());
+        assertEquals(0, board.getConflictCount());
+        assertFalse(board.isSolved());
+
+        board.set(empty, solution[empty]);
+        assertTrue(board.isSolved());
+    }
+}
@@ -0,0 +1,86 @@
+package com.jon.sudoku;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks incremental candidate updates against working them out from scratch.
+ */
+public class CandidatesTest {
+
+    @Test
+    public void randomMoves_matchRecomputed() throws Exception {
+        Random random = new Random(3);
+        Board board = new Board(GeneratePuzzle.fixture(2));
+        Candidates candidates = new Candidates(board);
+        int[] changed = new int[20];
+
+        for (int move = 0; move < 5000; move++) {
+            int cell = random.nextInt(Board.CELLS);
+            if (board.isGiven(cell)) {
+                continue;
+            }
+            if (random.nextInt(10) == 0) {
+                candidates.setEliminated(cell, random.nextInt(1 << 10));
+            } else {
+                int oldDigit = board.get(cell);
+                int newDigit = random.nextInt(10);
+                board.set(cell, newDigit);
+                int count = candidates.update(cell, oldDigit, newDigit, changed);
+                assertTrue(count <= 20);
+            }
+
+            Candidates expected = new Candidates(board);
+            for (int i = 0; i < Board.CELLS; i++) {
+                expected.setEliminated(i, candidates.getEliminated(i));
+                assertEquals(expected.get(i), candidates.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void copy_isIndependent() throws Exception {
+        Board board = new Board(GeneratePuzzle.fixture(0));
+        Candidates candidates = new Candidates(board);
+        int empty = 0;
+        while (board.get(empty) != 0) {
+            empty++;
+        }
+        candidates.setEliminated(empty, candidates.get(empty) & -candidates.get(empty));
+
+        Board boardCopy = new Board(board);
+        Candidates copy = new Candidates(boardCopy, candidates);
+        int digit = Integer.numberOfTrailingZeros(copy.get(empty));
+        board.set(empty, digit);
+        candidates.update(empty, 0, digit, new int[20]);
+
+        assertEquals(0, boardCopy.get(empty));
+        assertEquals(board.isGiven(0), boardCopy.isGiven(0));
+        assertEquals(board.getFilledCount() - 1, boardCopy.getFilledCount());
+        assertEquals(1 << digit, copy.get(empty) & (1 << digit));
+        assertEquals(candidates.getEliminated(empty), copy.getEliminated(empty));
+    }
+
+    @Test
+    public void clearedDigit_returnsOnlyWhereAllowed() throws Exception {
+        Board board = new Board();
+        Candidates candidates = new Candidates(board);
+        int[] changed = new int[20];
+
+        board.set(Board.cell(0, 0), 5);
+        candidates.update(Board.cell(0, 0), 0, 5, changed);
+        board.set(Board.cell(4, 1), 5);
+        candidates.update(Board.cell(4, 1), 0, 5, changed);
+        assertEquals(0, candidates.get(Board.cell(0, 4)) & (1 << 5));
+
+        // 5 comes back in row 0, but not in column 1 which still has one
+        board.set(Board.cell(0, 0), 0);
+        candidates.update(Board.cell(0, 0), 5, 0, changed);
+        assertEquals(1 << 5, candidates.get(Board.cell(0, 4)) & (1 << 5));
+        assertEquals(0, candidates.get(Board.cell(0, 1)) & (1 << 5));
+        assertEquals(1 << 5, candidates.get(Board.cell(0, 0)) & (1 << 5));
+    }
+}
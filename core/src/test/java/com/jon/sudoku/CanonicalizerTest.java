@@ -0,0 +1,136 @@
+package com.jon.sudoku;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class CanonicalizerTest {
+
+    private final Canonicalizer canonicalizer = new Canonicalizer();
+
+    @Test
+    public void disguisedPuzzles_haveTheSameForm() throws Exception {
+        Random random = new Random(21);
+        for (int difficulty = 0; difficulty < 3; difficulty++) {
+            byte[] puzzle = digits(GeneratePuzzle.fixture(difficulty));
+            byte[] expected = canonical(puzzle);
+            long hash = canonicalizer.hash(puzzle);
+            for (int i = 0; i < 200; i++) {
+                byte[] disguised = disguise(puzzle, random);
+                assertArrayEquals(expected, canonical(disguised));
+                assertEquals(hash, canonicalizer.hash(disguised));
+            }
+        }
+    }
+
+    @Test
+    public void form_isTheSamePuzzle() throws Exception {
+        for (int difficulty = 0; difficulty < 3; difficulty++) {
+            byte[] puzzle = digits(GeneratePuzzle.fixture(difficulty));
+            byte[] form = canonical(puzzle);
+            assertEquals(clues(puzzle), clues(form));
+
+            // still has one solution, and canonicalizing again changes nothing
+            assertEquals(1, new DancingLinksSolver().countSolutions(new Board(form), 2));
+            assertArrayEquals(form, canonical(form));
+        }
+    }
+
+    @Test
+    public void differentPuzzles_haveDifferentForms() throws Exception {
+        long easy = canonicalizer.hash(GeneratePuzzle.fixture(0));
+        long medium = canonicalizer.hash(GeneratePuzzle.fixture(1));
+        long hard = canonicalizer.hash(GeneratePuzzle.fixture(2));
+        assertNotEquals(easy, medium);
+        assertNotEquals(medium, hard);
+        assertNotEquals(easy, hard);
+
+        // one clue moved to another digit is a different puzzle
+        byte[] puzzle = digits(GeneratePuzzle.fixture(2));
+        byte[] changed = puzzle.clone();
+        for (int cell = 0; cell < Board.CELLS; cell++) {
+            if (changed[cell] != 0) {
+                changed[cell] = (byte) (changed[cell] % 9 + 1);
+                break;
+            }
+        }
+        assertFalse(Arrays.equals(canonical(puzzle), canonical(changed)));
+    }
+
+    private byte[] canonical(byte[] puzzle) {
+        byte[] form = new byte[Board.CELLS];
+        canonicalizer.canonicalize(puzzle, form);
+        return form;
+    }
+
+    private static byte[] digits(int[][] puzzle) {
+        byte[] digits = new byte[Board.CELLS];
+        for (int cell = 0; cell < Board.CELLS; cell++) {
+            digits[cell] = (byte) puzzle[Board.row(cell)][Board.column(cell)];
+        }
+        return digits;
+    }
+
+    private static int clues(byte[] digits) {
+        int clues = 0;
+        for (byte digit : digits) {
+            if (digit != 0) {
+                clues++;
+            }
+        }
+        return clues;
+    }
+
+    /**
+     * Relabels the digits, shuffles bands, stacks and the rows and columns inside them, and maybe transposes
+     */
+    private static byte[] disguise(byte[] puzzle, Random random) {
+        int[] labels = shuffled(10, 1, random);
+        int[] rows = lines(random);
+        int[] columns = lines(random);
+        boolean transpose = random.nextBoolean();
+        byte[] disguised = new byte[Board.CELLS];
+        for (int cell = 0; cell < Board.CELLS; cell++) {
+            int row = rows[Board.row(cell)];
+            int column = columns[Board.column(cell)];
+            int digit = transpose ? puzzle[Board.cell(column, row)] : puzzle[Board.cell(row, column)];
+            disguised[cell] = (byte) (digit == 0 ? 0 : labels[digit]);
+        }
+        return disguised;
+    }
+
+    /**
+     * @return a row or column order that keeps lines of the same band together
+     */
+    private static int[] lines(Random random) {
+        int[] bands = shuffled(3, 0, random);
+        int[] lines = new int[9];
+        for (int band = 0; band < 3; band++) {
+            int[] within = shuffled(3, 0, random);
+            for (int i = 0; i < 3; i++) {
+                lines[band * 3 + i] = bands[band] * 3 + within[i];
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * @return 0 to n - 1 with from onwards shuffled
+     */
+    private static int[] shuffled(int n, int from, Random random) {
+        int[] values = new int[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = i;
+        }
+        for (int i = n - 1; i > from; i--) {
+            int j = from + random.nextInt(i - from + 1);
+            int swap = values[i];
+            values[i] = values[j];
+            values[j] = swap;
+        }
+        return values;
+    }
+}
@@ -0,0 +1,41 @@
+package com.jon.sudoku;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Runs the solver checks against the dancing links solver.
+ */
+public class DancingLinksSolverTest extends SolverTest {
+
+    @Override
+    protected Solver createSolver() {
+        return new DancingLinksSolver();
+    }
+
+    @Test
+    public void repeatedSolves_restoreMatrix() throws Exception {
+        Solver solver = createSolver();
+        Solver reference = new BacktrackingSolver();
+        PuzzleGenerator generator = new PuzzleGenerator(reference, 11);
+        for (int i = 0; i < 20; i++) {
+            Board board = generator.generate(i % 3);
+            assertEquals(1, solver.countSolutions(board, 2));
+
+            // removing a clue usually gives several solutions
+            for (int cell = 0; cell < Board.CELLS; cell++) {
+                if (board.get(cell) != 0) {
+                    Board copy = new Board();
+                    for (int other = 0; other < Board.CELLS; other++) {
+                        if (other != cell) {
+                            copy.set(other, board.get(other));
+                        }
+                    }
+                    assertEquals(reference.countSolutions(copy, 10), solver.countSolutions(copy, 10));
+                    break;
+                }
+            }
+        }
+    }
+}
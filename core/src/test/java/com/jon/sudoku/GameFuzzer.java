@@ -0,0 +1,586 @@
+package com.jon.sudoku;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Drives a {@link Game} with seeded random taps, entries, ruled out digits, undos and redos, checking
+ * it after every step against a plain model of the board kept here.
+ * <p>
+ * The model counts each digit per row, column and box to work out conflicts, keeps
+ * its own undo list, and calls the game won only when every square matches the
+ * solver's solution. Each step checks the moved square's row, column and box, and
+ * the whole board is compared every few thousand steps. The steps of the game being
+ * played are logged, so a failure holds everything needed to replay it exactly.
+ */
+public class GameFuzzer {
+
+    public static final int TAP = 0;
+    public static final int ENTER = 1;
+    public static final int UNDO = 2;
+    public static final int REDO = 3;
+    public static final int NEW_GAME = 4;
+    public static final int RULE_OUT = 5;
+
+    private static final char[] ACTION_NAMES = {'T', 'E', 'U', 'R', 'N', 'X'};
+
+    // Steps between full board comparisons
+    private static final int SWEEP_INTERVAL = 1 << 12;
+
+    // Steps before a game that isn't won is given up for a new one
+    private static final int GAME_STEPS = 1 << 15;
+
+    private static final int UNITS = 3 * Board.SIZE;
+
+    private final int[][][] puzzles;
+    private final byte[][] solutions;
+    private final int undoLimit;
+
+    private Game game;
+    private int puzzle;
+
+    // The model: digits, givens, and the count of each digit in each row, column and box
+    private final byte[] digits = new byte[Board.CELLS];
+    private final boolean[] given = new boolean[Board.CELLS];
+    private final int[] eliminated = new int[Board.CELLS];
+    private final int[] counts = new int[UNITS * (Board.SIZE + 1)];
+    private int filled;
+    private int correct;
+    private int repeats;
+    private int highlighted;
+    private boolean won;
+
+    // The model's undo list: moves packed as eliminatedChange << 16 | cell << 8 | oldDigit << 4 | newDigit,
+    // the oldest first, those from position on can be redone
+    private final int[] moves;
+    private int moveCount;
+    private int position;
+
+    // Steps of the game being played, starting with its NEW_GAME
+    private int[] log = new int[1024];
+    private int logSize;
+
+    /**
+     * @param puzzles   9x9 puzzles with a unique solution, games are played on them in turn
+     * @param undoLimit most moves the game can undo
+     */
+    public GameFuzzer(int[][][] puzzles, int undoLimit) {
+        this.puzzles = puzzles;
+        this.undoLimit = undoLimit;
+        moves = new int[undoLimit];
+        solutions = new byte[puzzles.length][Board.CELLS];
+        Solver solver = new BitboardSolver();
+        for (int i = 0; i < puzzles.length; i++) {
+            if (!solver.solve(new Board(puzzles[i]), solutions[i])) {
+                throw new IllegalArgumentException("Puzzle " + i + " has no solution");
+            }
+        }
+    }
+
+    /**
+     * Packs a step for the log
+     *
+     * @param action TAP, ENTER, UNDO, REDO, NEW_GAME or RULE_OUT
+     * @param arg    the cell tapped (-1 for none), digit entered or ruled out, or puzzle started
+     */
+    public static int step(int action, int arg) {
+        return action << 8 | (arg & 0xFF);
+    }
+
+    public static int action(int step) {
+        return step >>> 8;
+    }
+
+    public static int arg(int step) {
+        return (byte) step;
+    }
+
+    /**
+     * Plays random steps until one fails the checks
+     *
+     * @param seed
+     * @param steps number of steps to play
+     * @return the failing game, null if every step passed
+     */
+    public Failure run(long seed, long steps) {
+        Random random = new Random(seed);
+        int nextPuzzle = 0;
+        int gameSteps = 0;
+        for (long i = 0; i < steps; i++) {
+            int step;
+            if (game == null || gameSteps == GAME_STEPS || (won && random.nextInt(8) == 0)) {
+                step = step(NEW_GAME, nextPuzzle);
+                nextPuzzle = (nextPuzzle + 1) % puzzles.length;
+                gameSteps = 0;
+            } else {
+                step = randomStep(random);
+                gameSteps++;
+            }
+
+            String message = play(step);
+            if (message == null && (i + 1) % SWEEP_INTERVAL == 0) {
+                message = sweep();
+            }
+            if (message != null) {
+                return new Failure(seed, i, puzzle, Arrays.copyOf(log, logSize), message);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Plays a logged game again, as recorded in a failure
+     *
+     * @param steps steps of one game, starting with its NEW_GAME
+     * @return why the game failed, null if every step passed
+     */
+    public String replay(int[] steps) {
+        game = null;
+        for (int step : steps) {
+            String message = play(step);
+            if (message != null) {
+                return message;
+            }
+        }
+        return sweep();
+    }
+
+    /**
+     * @return the game being played, null before the first step
+     */
+    public Game getGame() {
+        return game;
+    }
+
+    /**
+     * @return steps of the game being played so far, starting with its NEW_GAME
+     */
+    public int[] getSteps() {
+        return Arrays.copyOf(log, logSize);
+    }
+
+    /**
+     * Taps, mostly enters the solution's digit and sometimes a wrong one or undoes,
+     * so games get won now and then
+     */
+    private int randomStep(Random random) {
+        int roll = random.nextInt(16);
+        if (roll < 6) {
+            int cell = random.nextInt(Board.CELLS + 1);
+            return step(TAP, cell == Board.CELLS ? -1 : cell);
+        }
+        if (roll == 12) {
+            return step(RULE_OUT, 1 + random.nextInt(Board.SIZE));
+        }
+        if (roll < 13) {
+            int digit = highlighted != -1 && random.nextInt(4) != 0
+                    ? solutions[puzzle][highlighted]
+                    : random.nextInt(Board.SIZE + 1);
+            return step(ENTER, digit);
+        }
+        return step(roll < 15 ? UNDO : REDO, 0);
+    }
+
+    /**
+     * Makes a step on both the game and the model, then compares them
+     *
+     * @return what differed, null if they agree
+     */
+    private String play(int step) {
+        int action = action(step);
+        int arg = arg(step);
+        if (action == NEW_GAME) {
+            start(arg);
+            logSize = 0;
+            log(step);
+            return null;
+        }
+        if (game == null) {
+            return "No game started";
+        }
+        log(step);
+
+        int cell = -1;
+        boolean expected = false;
+        boolean changed;
+        switch (action) {
+            case TAP:
+                if (!won && arg != -1 && !given[arg]) {
+                    highlighted = arg;
+                    expected = true;
+                }
+                changed = game.tap(arg);
+                break;
+
+            case ENTER:
+                if (!won && highlighted != -1 && arg != digits[highlighted]) {
+                    cell = highlighted;
+                    record(cell << 8 | digits[cell] << 4 | arg);
+                    set(cell, arg);
+                    expected = true;
+                }
+                changed = game.enter(arg);
+                break;
+
+            case RULE_OUT:
+                if (!won && highlighted != -1 && digits[highlighted] == 0) {
+                    cell = highlighted;
+                    record(1 << arg << 16 | cell << 8);
+                    eliminated[cell] ^= 1 << arg;
+                    expected = true;
+                }
+                changed = game.ruleOut(arg);
+                break;
+
+            case UNDO:
+                if (!won && position > 0) {
+                    int move = moves[--position];
+                    cell = move >>> 8 & 0xFF;
+                    set(cell, move >>> 4 & 0xF);
+                    eliminated[cell] ^= move >>> 16;
+                    expected = true;
+                }
+                changed = game.undo();
+                break;
+
+            case REDO:
+                if (!won && position < moveCount) {
+                    int move = moves[position++];
+                    cell = move >>> 8 & 0xFF;
+                    set(cell, move & 0xF);
+                    eliminated[cell] ^= move >>> 16;
+                    expected = true;
+                }
+                changed = game.redo();
+                break;
+
+            default:
+                return "Unknown step " + step;
+        }
+
+        if (changed != expected) {
+            return "Step " + describe(step) + " returned " + changed + ", expected " + expected;
+        }
+        if (game.getHighlighted() != highlighted) {
+            return "Highlighted " + game.getHighlighted() + ", expected " + highlighted;
+        }
+        if (game.isWon() != won) {
+            return "Won " + game.isWon() + ", expected " + won;
+        }
+        if (game.canUndo() != (!won && position > 0) || game.canRedo() != (!won && position < moveCount)) {
+            return "Undo/redo " + game.canUndo() + "/" + game.canRedo() + ", expected "
+                    + (!won && position > 0) + "/" + (!won && position < moveCount);
+        }
+        if (cell != -1) {
+            if (game.getChangedCount() == 0 || game.getChanged(0) != cell) {
+                return "Moved cell " + cell + " not listed first as changed";
+            }
+            if (game.getCandidates().getEliminated(cell) != eliminated[cell]) {
+                return "Cell " + cell + " ruled out " + Integer.toBinaryString(game.getCandidates().getEliminated(cell))
+                        + ", expected " + Integer.toBinaryString(eliminated[cell]);
+            }
+            return checkUnits(cell);
+        }
+        return null;
+    }
+
+    /**
+     * Compares the moved cell and every cell sharing its row, column or box
+     */
+    private String checkUnits(int cell) {
+        Board board = game.getBoard();
+        int row = Board.row(cell);
+        int column = Board.column(cell);
+        int firstRow = row - row % Board.BOX_SIZE;
+        int firstColumn = column - column % Board.BOX_SIZE;
+        for (int i = 0; i < Board.SIZE; i++) {
+            String message = checkCell(board, Board.cell(row, i));
+            if (message == null) {
+                message = checkCell(board, Board.cell(i, column));
+            }
+            if (message == null) {
+                message = checkCell(board, Board.cell(firstRow + i / Board.BOX_SIZE, firstColumn + i % Board.BOX_SIZE));
+            }
+            if (message != null) {
+                return message;
+            }
+        }
+        if (board.getConflictCount() != repeats) {
+            return "Conflict count " + board.getConflictCount() + ", expected " + repeats;
+        }
+        if (board.getFilledCount() != filled) {
+            return "Filled count " + board.getFilledCount() + ", expected " + filled;
+        }
+        if (game.getChecker().getMistakes() != filled - correct) {
+            return "Mistakes " + game.getChecker().getMistakes() + ", expected " + (filled - correct);
+        }
+        return null;
+    }
+
+    private String checkCell(Board board, int cell) {
+        if (board.get(cell) != digits[cell]) {
+            return "Cell " + cell + " holds " + board.get(cell) + ", expected " + digits[cell];
+        }
+        if (board.isConflicting(cell) != isConflicting(cell)) {
+            return "Cell " + cell + " conflicting " + board.isConflicting(cell) + ", expected " + isConflicting(cell);
+        }
+        return null;
+    }
+
+    /**
+     * Compares every cell and its pencil marks
+     */
+    private String sweep() {
+        if (game == null) {
+            return null;
+        }
+        Board board = game.getBoard();
+        Candidates candidates = game.getCandidates();
+        for (int cell = 0; cell < Board.CELLS; cell++) {
+            String message = checkCell(board, cell);
+            if (message != null) {
+                return message;
+            }
+            int expected = 0;
+            if (digits[cell] == 0) {
+                for (int digit = 1; digit <= Board.SIZE; digit++) {
+                    if (count(0, Board.row(cell), digit) == 0
+                            && count(1, Board.column(cell), digit) == 0
+                            && count(2, Board.box(cell), digit) == 0) {
+                        expected |= 1 << digit;
+                    }
+                }
+            }
+            expected &= ~eliminated[cell];
+            if (candidates.getEliminated(cell) != eliminated[cell]) {
+                return "Cell " + cell + " ruled out " + Integer.toBinaryString(candidates.getEliminated(cell))
+                        + ", expected " + Integer.toBinaryString(eliminated[cell]);
+            }
+            if (candidates.get(cell) != expected) {
+                return "Cell " + cell + " candidates " + Integer.toBinaryString(candidates.get(cell))
+                        + ", expected " + Integer.toBinaryString(expected);
+            }
+        }
+        return null;
+    }
+
+    private void start(int index) {
+        puzzle = index;
+        Board board = new Board(puzzles[index]);
+        game = new Game(new SavedGame(board, new Candidates(board), 0), undoLimit);
+        game.setChecker(new SolutionChecker(board, solutions[index]));
+
+        Arrays.fill(digits, (byte) 0);
+        Arrays.fill(eliminated, 0);
+        Arrays.fill(counts, 0);
+        filled = 0;
+        correct = 0;
+        repeats = 0;
+        for (int cell = 0; cell < Board.CELLS; cell++) {
+            int digit = puzzles[index][Board.row(cell)][Board.column(cell)];
+            given[cell] = digit != 0;
+            set(cell, digit);
+        }
+        highlighted = -1;
+        won = false;
+        moveCount = 0;
+        position = 0;
+    }
+
+    /**
+     * Adds a move to the model's undo list, dropping the oldest past the limit
+     */
+    private void record(int move) {
+        moveCount = position;
+        if (moveCount == moves.length) {
+            System.arraycopy(moves, 1, moves, 0, moveCount - 1);
+            moveCount--;
+        }
+        moves[moveCount++] = move;
+        position = moveCount;
+    }
+
+    /**
+     * Puts a digit in the model and highlights it. Won only when it matches the solution.
+     */
+    private void set(int cell, int digit) {
+        byte[] solution = solutions[puzzle];
+        int oldDigit = digits[cell];
+        if (oldDigit != 0) {
+            filled--;
+            correct -= oldDigit == solution[cell] ? 1 : 0;
+            repeats -= remove(0, Board.row(cell), oldDigit) + remove(1, Board.column(cell), oldDigit)
+                    + remove(2, Board.box(cell), oldDigit);
+        }
+        digits[cell] = (byte) digit;
+        if (digit != 0) {
+            filled++;
+            correct += digit == solution[cell] ? 1 : 0;
+            repeats += add(0, Board.row(cell), digit) + add(1, Board.column(cell), digit)
+                    + add(2, Board.box(cell), digit);
+        }
+        if (!given[cell]) {
+            highlighted = cell;
+        }
+        won = correct == Board.CELLS;
+    }
+
+    private boolean isConflicting(int cell) {
+        int digit = digits[cell];
+        return digit != 0 && (count(0, Board.row(cell), digit) > 1
+                || count(1, Board.column(cell), digit) > 1
+                || count(2, Board.box(cell), digit) > 1);
+    }
+
+    private int count(int kind, int unit, int digit) {
+        return counts[(kind * Board.SIZE + unit) * (Board.SIZE + 1) + digit];
+    }
+
+    /**
+     * @return 1 if the digit was already in the unit
+     */
+    private int add(int kind, int unit, int digit) {
+        return counts[(kind * Board.SIZE + unit) * (Board.SIZE + 1) + digit]++ > 0 ? 1 : 0;
+    }
+
+    /**
+     * @return 1 if the digit is still in the unit
+     */
+    private int remove(int kind, int unit, int digit) {
+        return --counts[(kind * Board.SIZE + unit) * (Board.SIZE + 1) + digit] > 0 ? 1 : 0;
+    }
+
+    private void log(int step) {
+        if (logSize == log.length) {
+            log = Arrays.copyOf(log, logSize * 2);
+        }
+        log[logSize++] = step;
+    }
+
+    private static String describe(int step) {
+        int action = action(step);
+        return action < ACTION_NAMES.length ? ACTION_NAMES[action] + " " + arg(step) : Integer.toString(step);
+    }
+
+    /**
+     * A game whose last step failed the checks
+     */
+    public static class Failure {
+
+        private final long seed;
+        private final long step;
+        private final int puzzle;
+        private final int[] steps;
+        private final String message;
+
+        /**
+         * @param seed    seed of the run the game was played in
+         * @param step    number of the failing step in the run
+         * @param puzzle  index of the puzzle played
+         * @param steps   steps of the game, starting with its NEW_GAME
+         * @param message what differed
+         */
+        public Failure(long seed, long step, int puzzle, int[] steps, String message) {
+            this.seed = seed;
+            this.step = step;
+            this.puzzle = puzzle;
+            this.steps = steps;
+            this.message = message;
+        }
+
+        public long getSeed() {
+            return seed;
+        }
+
+        public long getStep() {
+            return step;
+        }
+
+        public int getPuzzle() {
+            return puzzle;
+        }
+
+        public int[] getSteps() {
+            return steps;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        /**
+         * Writes the failure as text, one step per line
+         *
+         * @param out
+         * @throws IOException
+         */
+        public void write(Writer out) throws IOException {
+            out.write("# " + message + "\n");
+            out.write("seed " + seed + "\n");
+            out.write("step " + step + "\n");
+            out.write("puzzle " + puzzle + "\n");
+            for (int s : steps) {
+                out.write(describe(s) + "\n");
+            }
+            out.flush();
+        }
+
+        /**
+         * Reads a failure written by {@link #write(Writer)}
+         *
+         * @param in
+         * @return the failure, with the message from its first line
+         * @throws IOException if the text isn't a failure
+         */
+        public static Failure read(Reader in) throws IOException {
+            BufferedReader reader = new BufferedReader(in);
+            String message = reader.readLine();
+            if (message == null || !message.startsWith("# ")) {
+                throw new IOException("Not a game fuzzer failure");
+            }
+            try {
+                long seed = Long.parseLong(field(reader, "seed"));
+                long step = Long.parseLong(field(reader, "step"));
+                int puzzle = Integer.parseInt(field(reader, "puzzle"));
+
+                int[] steps = new int[64];
+                int size = 0;
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.isEmpty()) {
+                        continue;
+                    }
+                    int action = new String(ACTION_NAMES).indexOf(line.charAt(0));
+                    if (action == -1 || line.length() < 3) {
+                        throw new IOException("Bad step: " + line);
+                    }
+                    if (size == steps.length) {
+                        steps = Arrays.copyOf(steps, size * 2);
+                    }
+                    steps[size++] = step(action, Integer.parseInt(line.substring(2)));
+                }
+                return new Failure(seed, step, puzzle, Arrays.copyOf(steps, size), message.substring(2));
+            } catch (NumberFormatException e) {
+                throw new IOException("Bad number in failure", e);
+            }
+        }
+
+        private static String field(BufferedReader reader, String name) throws IOException {
+            String line = reader.readLine();
+            if (line == null || !line.startsWith(name + " ")) {
+                throw new IOException("Missing " + name);
+            }
+            return line.substring(name.length() + 1);
+        }
+
+        @Override
+        public String toString() {
+            return message + " (seed " + seed + ", step " + step + ", puzzle " + puzzle
+                    + ", " + steps.length + " steps to replay)";
+        }
+    }
+}
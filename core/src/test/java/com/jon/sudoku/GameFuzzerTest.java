@@ -0,0 +1,81 @@
+package com.jon.sudoku;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Plays the game with random steps, checking it against the fuzzer's own model.
+ * A failing game is written to build/fuzz so it can be replayed with {@link GameFuzzer#replay(int[])}.
+ * The long run is opt-in: {@code ./gradlew :core:test -PfuzzSteps=10000000 -PfuzzSeed=1}.
+ */
+public class GameFuzzerTest {
+
+    private static final int UNDO_LIMIT = 64;
+
+    // Enough to win a few dozen games, in well under a second
+    private static final long DEFAULT_STEPS = 200000;
+    private static final long DEFAULT_SEED = 2024;
+
+    private static GameFuzzer newFuzzer() {
+        return new GameFuzzer(new int[][][]{
+                GeneratePuzzle.fixture(0), GeneratePuzzle.fixture(1), GeneratePuzzle.fixture(2)
+        }, UNDO_LIMIT);
+    }
+
+    @Test
+    public void randomSteps_matchModel() throws Exception {
+        long seed = Long.getLong("fuzzSeed", DEFAULT_SEED);
+        long steps = Long.getLong("fuzzSteps", DEFAULT_STEPS);
+        GameFuzzer.Failure failure = newFuzzer().run(seed, steps);
+        if (failure != null) {
+            File file = new File("build/fuzz/game-" + failure.getSeed() + ".txt");
+            file.getParentFile().mkdirs();
+            Writer out = new FileWriter(file);
+            try {
+                failure.write(out);
+            } finally {
+                out.close();
+            }
+            fail(failure + ", written to " + file);
+        }
+    }
+
+    @Test
+    public void replay_reachesTheSameBoard() throws Exception {
+        GameFuzzer fuzzer = newFuzzer();
+        assertNull(fuzzer.run(7, 5000));
+        int[][] board = fuzzer.getGame().getBoard().toArray();
+
+        // a made up failure of the run's last game, written out and read back
+        int[] steps = fuzzer.getSteps();
+        GameFuzzer.Failure failure = new GameFuzzer.Failure(7, 4999, GameFuzzer.arg(steps[0]), steps, "made up");
+        StringWriter text = new StringWriter();
+        failure.write(text);
+        GameFuzzer.Failure read = GameFuzzer.Failure.read(new StringReader(text.toString()));
+        assertEquals(failure.getSeed(), read.getSeed());
+        assertEquals(failure.getPuzzle(), read.getPuzzle());
+        assertArrayEquals(failure.getSteps(), read.getSteps());
+
+        GameFuzzer replayer = newFuzzer();
+        assertNull(replayer.replay(read.getSteps()));
+        assertTrue(Arrays.deepEquals(board, replayer.getGame().getBoard().toArray()));
+    }
+
+    @Test
+    public void sameSeed_playsTheSameGames() throws Exception {
+        GameFuzzer first = newFuzzer();
+        GameFuzzer second = newFuzzer();
+        assertNull(first.run(11, 100000));
+        assertNull(second.run(11, 100000));
+        assertTrue(Arrays.deepEquals(first.getGame().getBoard().toArray(), second.getGame().getBoard().toArray()));
+        assertEquals(first.getGame().getHighlighted(), second.getGame().getHighlighted());
+    }
+}
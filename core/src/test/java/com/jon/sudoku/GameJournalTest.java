@@ -0,0 +1,122 @@
+package com.jon.sudoku;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Saves games through the snapshot and journal and checks they come back the same.
+ */
+public class GameJournalTest {
+
+    @Test
+    public void snapshot_roundTrips() throws Exception {
+        SavedGame game = playedGame(new Random(1), 200);
+        byte[] bytes = game.toBytes();
+        assertEquals(SavedGame.SNAPSHOT_SIZE, bytes.length);
+
+        assertSameGame(game, SavedGame.fromBytes(bytes));
+    }
+
+    @Test
+    public void journal_replaysMoves() throws Exception {
+        File dir = tempDir();
+        Random random = new Random(2);
+        Board board = new Board(GeneratePuzzle.fixture(1));
+        SavedGame game = new SavedGame(board, new Candidates(board), 1);
+
+        GameJournal journal = new GameJournal(new File(dir, "game.dat"), new File(dir, "game.journal"));
+        journal.start(game);
+        // enough moves to fold the journal into a new snapshot at least once
+        play(game, random, 1500, journal);
+        journal.close();
+
+        SavedGame restored = new GameJournal(new File(dir, "game.dat"), new File(dir, "game.journal")).restore();
+        assertSameGame(game, restored);
+    }
+
+    @Test
+    public void partialRecord_isIgnored() throws Exception {
+        File dir = tempDir();
+        Board board = new Board(GeneratePuzzle.fixture(0));
+        SavedGame game = new SavedGame(board, new Candidates(board), 0);
+
+        GameJournal journal = new GameJournal(new File(dir, "game.dat"), new File(dir, "game.journal"));
+        journal.start(game);
+        play(game, new Random(3), 20, journal);
+        journal.close();
+
+        // a move cut off half way through being written
+        FileOutputStream out = new FileOutputStream(new File(dir, "game.journal"), true);
+        out.write(new byte[]{5, 0});
+        out.close();
+
+        GameJournal reopened = new GameJournal(new File(dir, "game.dat"), new File(dir, "game.journal"));
+        assertSameGame(game, reopened.restore());
+        assertEquals(0, reopened.getRecordCount());
+    }
+
+    @Test
+    public void nothingSaved_restoresNull() throws Exception {
+        File dir = tempDir();
+        assertNull(new GameJournal(new File(dir, "game.dat"), new File(dir, "game.journal")).restore());
+    }
+
+    private static SavedGame playedGame(Random random, int moves) throws Exception {
+        Board board = new Board(GeneratePuzzle.fixture(2));
+        SavedGame game = new SavedGame(board, new Candidates(board), 2);
+        play(game, random, moves, null);
+        return game;
+    }
+
+    /**
+     * Makes random moves and eliminations, journaling them if a journal is given
+     */
+    private static void play(SavedGame game, Random random, int moves, GameJournal journal) throws Exception {
+        Board board = game.getBoard();
+        Candidates candidates = game.getCandidates();
+        int[] changed = new int[20];
+        for (int move = 0; move < moves; move++) {
+            int cell = random.nextInt(Board.CELLS);
+            if (board.isGiven(cell)) {
+                continue;
+            }
+            if (random.nextInt(5) == 0) {
+                int mask = random.nextInt(1 << 10) & 0x3FE;
+                candidates.setEliminated(cell, mask);
+                if (journal != null) {
+                    journal.recordEliminated(cell, mask);
+                }
+            } else {
+                int oldDigit = board.get(cell);
+                int digit = random.nextInt(10);
+                board.set(cell, digit);
+                candidates.update(cell, oldDigit, digit, changed);
+                if (journal != null) {
+                    journal.recordMove(cell, digit);
+                }
+            }
+        }
+    }
+
+    private static void assertSameGame(SavedGame expected, SavedGame actual) {
+        assertEquals(expected.getDifficulty(), actual.getDifficulty());
+        for (int cell = 0; cell < Board.CELLS; cell++) {
+            assertEquals(expected.getBoard().get(cell), actual.getBoard().get(cell));
+            assertEquals(expected.getBoard().isGiven(cell), actual.getBoard().isGiven(cell));
+            assertEquals(expected.getCandidates().get(cell), actual.getCandidates().get(cell));
+            assertEquals(expected.getCandidates().getEliminated(cell), actual.getCandidates().getEliminated(cell));
+        }
+    }
+
+    private static File tempDir() throws Exception {
+        File dir = File.createTempFile("journal", "");
+        assertTrue(dir.delete() && dir.mkdir());
+        dir.deleteOnExit();
+        return dir;
+    }
+}
@@ -0,0 +1,149 @@
+package com.jon.sudoku;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+public class GameTest {
+
+    private static Game newGame(int difficulty) {
+        Board board = new Board(GeneratePuzzle.fixture(difficulty));
+        return new Game(new SavedGame(board, new Candidates(board), difficulty), 10);
+    }
+
+    private static int firstEmpty(Board board) {
+        for (int cell = 0; cell < Board.CELLS; cell++) {
+            if (board.get(cell) == 0) {
+                return cell;
+            }
+        }
+        return -1;
+    }
+
+    @Test
+    public void givensAndNoHighlight_ignoreInput() throws Exception {
+        Game game = newGame(0);
+        int given = 0;
+        while (!game.getBoard().isGiven(given)) {
+            given++;
+        }
+        assertFalse(game.tap(given));
+        assertFalse(game.tap(-1));
+        assertEquals(-1, game.getHighlighted());
+        assertFalse(game.enter(5));
+        assertFalse(game.canUndo());
+    }
+
+    @Test
+    public void enter_listsChangedSquaresAndUndoes() throws Exception {
+        Game game = newGame(1);
+        int cell = firstEmpty(game.getBoard());
+        assertTrue(game.tap(cell));
+        assertTrue(game.enter(1));
+        assertFalse(game.enter(1));
+        assertEquals(1, game.getBoard().get(cell));
+        assertEquals(cell, game.getChanged(0));
+        assertTrue(game.getChangedCount() > 1);
+
+        assertTrue(game.undo());
+        assertEquals(0, game.getBoard().get(cell));
+        assertFalse(game.canUndo());
+        assertTrue(game.redo());
+        assertEquals(1, game.getBoard().get(cell));
+    }
+
+    @Test
+    public void ruleOut_isUndoneAndJournaled() throws Exception {
+        File dir = File.createTempFile("game", "");
+        assertTrue(dir.delete() && dir.mkdir());
+        dir.deleteOnExit();
+        GameJournal journal = new GameJournal(new File(dir, "game.dat"), new File(dir, "game.journal"));
+        Game game = newGame(2);
+        journal.start(game.save());
+        game.setJournal(journal);
+
+        int cell = firstEmpty(game.getBoard());
+        int digit = Integer.numberOfTrailingZeros(game.getCandidates().get(cell));
+        assertTrue(game.tap(cell));
+        assertTrue(game.ruleOut(digit));
+        assertEquals(1 << digit, game.getCandidates().getEliminated(cell));
+        assertEquals(0, game.getCandidates().get(cell) & 1 << digit);
+
+        // entering a 9 and taking it back leaves the ruled out digits alone
+        assertTrue(game.enter(9));
+        assertTrue(game.undo());
+        assertTrue(game.redo());
+        assertTrue(game.undo());
+        assertEquals(1 << digit, game.getCandidates().getEliminated(cell));
+        journal.close();
+
+        SavedGame restored = new GameJournal(new File(dir, "game.dat"), new File(dir, "game.journal")).restore();
+        assertEquals(1 << digit, restored.getCandidates().getEliminated(cell));
+        assertEquals(0, restored.getBoard().get(cell));
+
+        assertTrue(game.undo());
+        assertEquals(0, game.getCandidates().getEliminated(cell));
+        assertTrue(game.enter(9));
+        assertFalse(game.ruleOut(digit));
+    }
+
+    @Test
+    public void failedJournalWrite_dropsTheJournal() throws Exception {
+        File dir = File.createTempFile("game", "");
+        assertTrue(dir.delete() && dir.mkdir());
+        dir.deleteOnExit();
+        GameJournal journal = new GameJournal(new File(dir, "game.dat"), new File(dir, "game.journal")) {
+            @Override
+            public void recordMove(int cell, int digit) throws IOException {
+                throw new IOException("No space left on device");
+            }
+        };
+        Game game = newGame(1);
+        journal.start(game.save());
+        game.setJournal(journal);
+        assertFalse(game.isJournalFailed());
+
+        int cell = firstEmpty(game.getBoard());
+        assertTrue(game.tap(cell));
+        assertTrue(game.enter(1));
+        assertEquals(1, game.getBoard().get(cell));
+        assertTrue(game.isJournalFailed());
+
+        // a full snapshot holds the move the journal missed
+        GameJournal replacement = new GameJournal(new File(dir, "game.dat"), new File(dir, "game.journal"));
+        replacement.start(game.save());
+        game.setJournal(replacement);
+        assertFalse(game.isJournalFailed());
+        assertTrue(game.enter(2));
+        replacement.close();
+
+        SavedGame restored = new GameJournal(new File(dir, "game.dat"), new File(dir, "game.journal")).restore();
+        assertEquals(2, restored.getBoard().get(cell));
+    }
+
+    @Test
+    public void lastDigit_winsAndLocksTheGame() throws Exception {
+        Board board = new Board(GeneratePuzzle.fixture(2));
+        byte[] solution = new byte[Board.CELLS];
+        assertTrue(new BitboardSolver().solve(board, solution));
+        Game game = new Game(new SavedGame(board, new Candidates(board), 2), 10);
+
+        int last = -1;
+        for (int cell = 0; cell < Board.CELLS; cell++) {
+            if (!board.isGiven(cell)) {
+                assertFalse(game.isWon());
+                assertTrue(game.tap(cell));
+                assertTrue(game.enter(solution[cell]));
+                last = cell;
+            }
+        }
+        assertTrue(game.isWon());
+        assertFalse(game.canUndo());
+        assertFalse(game.tap(last));
+        assertFalse(game.enter(0));
+        assertTrue(game.save().getBoard().isSolved());
+    }
+}
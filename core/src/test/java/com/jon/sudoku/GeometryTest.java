@@ -0,0 +1,101 @@
+package com.jon.sudoku;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks boards, the solver and the generator on grids other than 9x9,
+ * including ones with rectangular boxes.
+ */
+public class GeometryTest {
+
+    private static final Geometry[] GEOMETRIES = {
+            new Geometry(2, 2), new Geometry(2, 3), new Geometry(3, 2), Geometry.STANDARD,
+            new Geometry(3, 4), new Geometry(4, 4), new Geometry(5, 5)
+    };
+
+    @Test
+    public void units_coverEveryCellOnce() throws Exception {
+        for (Geometry geometry : GEOMETRIES) {
+            int size = geometry.getSize();
+            for (int unit = 0; unit < 3 * size; unit++) {
+                int[] cells = geometry.unit(unit);
+                assertEquals(size, cells.length);
+                for (int cell : cells) {
+                    if (unit < size) {
+                        assertEquals(unit, geometry.row(cell));
+                    } else if (unit < 2 * size) {
+                        assertEquals(unit - size, geometry.column(cell));
+                    } else {
+                        assertEquals(unit - 2 * size, geometry.box(cell));
+                    }
+                }
+            }
+            for (int cell = 0; cell < geometry.getCells(); cell++) {
+                assertEquals(geometry.getPeerCount(), geometry.peers(cell).length);
+            }
+        }
+        assertEquals(20, Geometry.STANDARD.getPeerCount());
+
+        // 12x12 with boxes 3 rows high and 4 columns wide, 3 boxes to a band
+        Geometry wide = new Geometry(3, 4);
+        assertEquals(2, wide.box(wide.cell(0, 11)));
+        assertEquals(9, wide.box(wide.cell(11, 0)));
+    }
+
+    @Test
+    public void randomMoves_matchGridScan() throws Exception {
+        Random random = new Random(5);
+        for (Geometry geometry : new Geometry[]{new Geometry(2, 3), new Geometry(3, 4), new Geometry(4, 4)}) {
+            int size = geometry.getSize();
+            Board board = new Board(geometry);
+            String[][] text = new String[size][size];
+            for (String[] row : text) {
+                Arrays.fill(row, "");
+            }
+            int[] flipped = new int[geometry.getPeerCount()];
+
+            for (int move = 0; move < 1000; move++) {
+                int cell = random.nextInt(geometry.getCells());
+                int digit = random.nextInt(size + 1);
+                board.set(cell, digit, flipped);
+                text[geometry.row(cell)][geometry.column(cell)] = digit == 0 ? "" : "" + digit;
+
+                boolean[][] legal = Logic.isLegalMove(geometry, text);
+                for (int i = 0; i < geometry.getCells(); i++) {
+                    assertEquals(!legal[geometry.row(i)][geometry.column(i)], board.isConflicting(i));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void generatedPuzzles_haveOneSolution() throws Exception {
+        for (Geometry geometry : GEOMETRIES) {
+            Solver solver = Solvers.create(geometry);
+            PuzzleGenerator generator = new PuzzleGenerator(geometry, solver, 11);
+            for (int difficulty = 0; difficulty < 3; difficulty++) {
+                Board puzzle = generator.generate(difficulty);
+                assertEquals(geometry, puzzle.getGeometry());
+                assertEquals(geometry.toString(), 1, new DancingLinksSolver(geometry).countSolutions(puzzle, 2));
+
+                byte[] solution = new byte[geometry.getCells()];
+                assertTrue(solver.solve(puzzle, solution));
+                Board solved = new Board(geometry, solution);
+                assertTrue(solved.isSolved());
+                for (int cell = 0; cell < geometry.getCells(); cell++) {
+                    assertTrue(puzzle.get(cell) == 0 || puzzle.get(cell) == solution[cell]);
+                }
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void solver_rejectsOtherGeometry() throws Exception {
+        new DancingLinksSolver().countSolutions(new Board(new Geometry(4, 4)), 2);
+    }
+}
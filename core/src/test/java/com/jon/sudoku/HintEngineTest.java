@@ -0,0 +1,55 @@
+package com.jon.sudoku;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks hints lead to the solution and puzzles are graded consistently.
+ */
+public class HintEngineTest {
+
+    @Test
+    public void hints_matchSolution() throws Exception {
+        HintEngine engine = new HintEngine();
+        Solver solver = new DancingLinksSolver();
+        PuzzleGenerator generator = new PuzzleGenerator(solver, 9);
+        byte[] solution = new byte[Board.CELLS];
+
+        for (int i = 0; i < 30; i++) {
+            Board board = generator.generate(i % 3);
+            assertTrue(solver.solve(board, solution));
+
+            Hint hint;
+            while ((hint = engine.nextHint(board)) != null) {
+                assertEquals(solution[hint.getCell()], hint.getDigit());
+                assertEquals(0, board.get(hint.getCell()));
+                board.set(hint.getCell(), hint.getDigit());
+            }
+        }
+    }
+
+    @Test
+    public void easyFixture_needsOnlySingles() throws Exception {
+        Technique grade = new HintEngine().grade(new Board(GeneratePuzzle.fixture(0)));
+        assertEquals(0, grade.getDifficulty());
+    }
+
+    @Test
+    public void generatedPuzzle_matchesDifficulty() throws Exception {
+        HintEngine engine = new HintEngine();
+        PuzzleGenerator generator = new PuzzleGenerator(new DancingLinksSolver(), 2);
+        for (int difficulty = 0; difficulty < 3; difficulty++) {
+            assertEquals(difficulty, engine.grade(generator.generate(difficulty)).getDifficulty());
+        }
+    }
+
+    @Test
+    public void conflictingBoard_hasNoHint() throws Exception {
+        Board board = new Board();
+        board.set(Board.cell(0, 0), 4);
+        board.set(Board.cell(0, 1), 4);
+        assertNull(new HintEngine().nextHint(board));
+        assertNull(new HintEngine().grade(board));
+    }
+}
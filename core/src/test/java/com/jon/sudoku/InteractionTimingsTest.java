@@ -0,0 +1,60 @@
+package com.jon.sudoku;
+
+import com.jon.sudoku.InteractionTimings.Interaction;
+
+import org.junit.Test;
+
+import java.io.StringWriter;
+
+import static org.junit.Assert.*;
+
+/**
+ * Times fake interactions and checks the buffer keeps the latest ones.
+ */
+public class InteractionTimingsTest {
+
+    @Test
+    public void begin_isTimedFromTheFirstInteraction() throws Exception {
+        InteractionTimings timings = new InteractionTimings(8);
+        timings.begin(Interaction.MOVE, 1000);
+        timings.begin(Interaction.TAP, 2000);
+        timings.end(5000);
+        timings.end(9000);
+
+        assertEquals(1, timings.getCount(Interaction.MOVE));
+        assertEquals(0, timings.getCount(Interaction.TAP));
+        assertEquals(4000, timings.getPercentile(Interaction.MOVE, 50));
+
+        timings.begin(Interaction.TAP, 10000);
+        timings.cancel();
+        timings.end(20000);
+        assertEquals(0, timings.getCount(Interaction.TAP));
+    }
+
+    @Test
+    public void fullBuffer_keepsTheLatest() throws Exception {
+        InteractionTimings timings = new InteractionTimings(100);
+        for (int i = 1; i <= 250; i++) {
+            timings.record(Interaction.TAP, i);
+        }
+
+        assertEquals(100, timings.getCount(Interaction.TAP));
+        assertEquals(151, timings.getPercentile(Interaction.TAP, 0));
+        assertEquals(200, timings.getPercentile(Interaction.TAP, 50));
+        assertEquals(249, timings.getPercentile(Interaction.TAP, 99));
+        assertEquals(0, timings.getPercentile(Interaction.UNDO, 50));
+    }
+
+    @Test
+    public void writeTo_listsOldestFirst() throws Exception {
+        InteractionTimings timings = new InteractionTimings(2);
+        timings.record(Interaction.TAP, 1000);
+        timings.record(Interaction.MOVE, 2000);
+        timings.record(Interaction.UNDO, 3000);
+
+        StringWriter out = new StringWriter();
+        timings.writeTo(out);
+        assertTrue(out.toString().endsWith("move 2\nundo 3\n"));
+        assertTrue(out.toString().startsWith("# move n=1"));
+    }
+}
@@ -0,0 +1,42 @@
+package com.jon.sudoku;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class LongHashSetTest {
+
+    @Test
+    public void add_reportsNewValues() throws Exception {
+        LongHashSet set = new LongHashSet(4);
+        assertTrue(set.add(42));
+        assertFalse(set.add(42));
+        assertTrue(set.add(0));
+        assertFalse(set.add(0));
+        assertTrue(set.add(-1));
+        assertTrue(set.contains(0));
+        assertTrue(set.contains(-1));
+        assertFalse(set.contains(1));
+        assertEquals(3, set.size());
+    }
+
+    @Test
+    public void growing_keepsEveryValue() throws Exception {
+        // sized far too small, and values differing only in their high bits
+        LongHashSet set = new LongHashSet(10);
+        Set<Long> expected = new HashSet<>();
+        Random random = new Random(21);
+        for (int i = 0; i < 100000; i++) {
+            long value = i % 2 == 0 ? random.nextLong() : (long) random.nextInt(1000) << 40;
+            assertEquals(expected.add(value), set.add(value));
+        }
+        assertEquals(expected.size(), set.size());
+        for (long value : expected) {
+            assertTrue(set.contains(value));
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.jon.sudoku;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class LongIntHashMapTest {
+
+    @Test
+    public void put_replacesAndGetFindsValues() throws Exception {
+        LongIntHashMap map = new LongIntHashMap(4);
+        assertEquals(-1, map.get(42));
+        map.put(42, 7);
+        map.put(0, 0);
+        map.put(-1, 3);
+        assertEquals(7, map.get(42));
+        assertEquals(0, map.get(0));
+        assertEquals(3, map.get(-1));
+        assertEquals(-1, map.get(1));
+        map.put(42, 8);
+        map.put(0, 1);
+        assertEquals(8, map.get(42));
+        assertEquals(1, map.get(0));
+        assertEquals(3, map.size());
+    }
+
+    @Test
+    public void growing_keepsEveryEntry() throws Exception {
+        // sized far too small, and keys differing only in their high bits
+        LongIntHashMap map = new LongIntHashMap(10);
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(21);
+        for (int i = 0; i < 100000; i++) {
+            long key = i % 2 == 0 ? random.nextLong() : (long) random.nextInt(1000) << 40;
+            map.put(key, i);
+            expected.put(key, i);
+        }
+        assertEquals(expected.size(), map.size());
+        for (Map.Entry<Long, Integer> entry : expected.entrySet()) {
+            assertEquals((int) entry.getValue(), map.get(entry.getKey()));
+        }
+    }
+}
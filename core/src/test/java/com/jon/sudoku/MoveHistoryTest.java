@@ -0,0 +1,110 @@
+package com.jon.sudoku;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Undoes and redoes random moves on a board and checks it goes back to the same states.
+ */
+public class MoveHistoryTest {
+
+    @Test
+    public void pack_keepsEveryField() throws Exception {
+        int move = MoveHistory.pack(80, 9, 7, 0x3FE);
+        assertEquals(80, MoveHistory.cell(move));
+        assertEquals(9, MoveHistory.oldDigit(move));
+        assertEquals(7, MoveHistory.newDigit(move));
+        assertEquals(0x3FE, MoveHistory.eliminatedChange(move));
+
+        // the top bit of a new 8 or 9 sits just below the ruled out digits
+        for (int digit = 8; digit <= 9; digit++) {
+            move = MoveHistory.pack(10, 0, digit, 0);
+            assertEquals(digit, MoveHistory.newDigit(move));
+            assertEquals(0, MoveHistory.eliminatedChange(move));
+
+            move = MoveHistory.pack(10, digit, digit, 0x202);
+            assertEquals(digit, MoveHistory.oldDigit(move));
+            assertEquals(digit, MoveHistory.newDigit(move));
+            assertEquals(0x202, MoveHistory.eliminatedChange(move));
+        }
+    }
+
+    @Test
+    public void undoAll_thenRedoAll_restoresBoards() throws Exception {
+        Random random = new Random(4);
+        Board board = new Board(GeneratePuzzle.fixture(2));
+        Candidates candidates = new Candidates(board);
+        MoveHistory history = new MoveHistory(1000);
+        int[] changed = new int[20];
+
+        int[][] start = board.toArray();
+        for (int i = 0; i < 500; i++) {
+            int cell = random.nextInt(Board.CELLS);
+            if (board.isGiven(cell)) {
+                continue;
+            }
+            int oldDigit = board.get(cell);
+            int digit = random.nextInt(10);
+            int eliminatedChange = random.nextInt(1 << 10) & 0x3FE;
+            history.record(MoveHistory.pack(cell, oldDigit, digit, eliminatedChange));
+            apply(board, candidates, cell, digit, eliminatedChange, changed);
+        }
+        int[][] end = board.toArray();
+
+        while (history.canUndo()) {
+            int move = history.undo();
+            apply(board, candidates, MoveHistory.cell(move), MoveHistory.oldDigit(move),
+                    MoveHistory.eliminatedChange(move), changed);
+        }
+        assertTrue(Arrays.deepEquals(start, board.toArray()));
+        for (int cell = 0; cell < Board.CELLS; cell++) {
+            assertEquals(0, candidates.getEliminated(cell));
+        }
+
+        while (history.canRedo()) {
+            int move = history.redo();
+            apply(board, candidates, MoveHistory.cell(move), MoveHistory.newDigit(move),
+                    MoveHistory.eliminatedChange(move), changed);
+        }
+        assertTrue(Arrays.deepEquals(end, board.toArray()));
+    }
+
+    @Test
+    public void full_dropsOldestMoves() throws Exception {
+        MoveHistory history = new MoveHistory(3);
+        for (int cell = 0; cell < 5; cell++) {
+            history.record(MoveHistory.pack(cell, 0, 1, 0));
+        }
+        assertEquals(3, history.getUndoCount());
+        assertEquals(4, MoveHistory.cell(history.undo()));
+        assertEquals(3, MoveHistory.cell(history.undo()));
+        assertEquals(2, MoveHistory.cell(history.undo()));
+        assertFalse(history.canUndo());
+    }
+
+    @Test
+    public void newMove_dropsRedo() throws Exception {
+        MoveHistory history = new MoveHistory(10);
+        history.record(MoveHistory.pack(1, 0, 1, 0));
+        history.record(MoveHistory.pack(2, 0, 1, 0));
+        history.undo();
+        assertTrue(history.canRedo());
+
+        history.record(MoveHistory.pack(3, 0, 1, 0));
+        assertFalse(history.canRedo());
+        assertEquals(3, MoveHistory.cell(history.undo()));
+        assertEquals(1, MoveHistory.cell(history.undo()));
+    }
+
+    private static void apply(Board board, Candidates candidates, int cell, int digit, int eliminatedChange,
+                              int[] changed) {
+        int oldDigit = board.get(cell);
+        board.set(cell, digit);
+        candidates.update(cell, oldDigit, digit, changed);
+        candidates.setEliminated(cell, candidates.getEliminated(cell) ^ eliminatedChange);
+    }
+}
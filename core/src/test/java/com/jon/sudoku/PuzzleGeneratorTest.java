@@ -0,0 +1,61 @@
+package com.jon.sudoku;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks generated puzzles are unique, reproducible and get harder with difficulty.
+ */
+public class PuzzleGeneratorTest {
+
+    @Test
+    public void generatedPuzzle_hasOneSolution() throws Exception {
+        PuzzleGenerator generator = new PuzzleGenerator(new BacktrackingSolver(), 1);
+        Solver solver = new BacktrackingSolver();
+        for (int difficulty = 0; difficulty < 3; difficulty++) {
+            Board board = generator.generate(difficulty);
+            assertEquals(1, solver.countSolutions(board, 2));
+            for (int cell = 0; cell < Board.CELLS; cell++) {
+                assertEquals(board.get(cell) != 0, board.isGiven(cell));
+                assertFalse(board.isConflicting(cell));
+            }
+        }
+    }
+
+    @Test
+    public void gradedDifficulty_matchesGrader() throws Exception {
+        PuzzleGenerator generator = new PuzzleGenerator(new BitboardSolver(), 4);
+        HintEngine grader = new HintEngine();
+        for (int difficulty = 0; difficulty < 3; difficulty++) {
+            Board board = generator.generate(difficulty);
+            assertEquals(grader.grade(board).getDifficulty(), generator.getGradedDifficulty());
+        }
+    }
+
+    @Test
+    public void sameSeed_samePuzzle() throws Exception {
+        for (int difficulty = 0; difficulty < 3; difficulty++) {
+            assertArrayEquals(GeneratePuzzle.generatePuzzle(difficulty, 7),
+                    GeneratePuzzle.generatePuzzle(difficulty, 7));
+        }
+    }
+
+    @Test
+    public void harderPuzzle_hasFewerClues() throws Exception {
+        int easy = clues(new PuzzleGenerator(new BacktrackingSolver(), 3).generate(0));
+        int hard = clues(new PuzzleGenerator(new BacktrackingSolver(), 3).generate(2));
+        assertTrue(easy >= 36);
+        assertTrue(hard < easy);
+    }
+
+    private static int clues(Board board) {
+        int clues = 0;
+        for (int cell = 0; cell < Board.CELLS; cell++) {
+            if (board.get(cell) != 0) {
+                clues++;
+            }
+        }
+        return clues;
+    }
+}
@@ -0,0 +1,81 @@
+package com.jon.sudoku;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Writes a small library and reads puzzles back through the mapping.
+ */
+public class PuzzleLibraryTest {
+
+    @Test
+    public void puzzles_readBackByDifficulty() throws Exception {
+        File file = File.createTempFile("puzzles", ".lib");
+        file.deleteOnExit();
+
+        int[] counts = {3, 0, 2};
+        int[][][] puzzles = new int[5][][];
+        PuzzleGenerator generator = new PuzzleGenerator(new DancingLinksSolver(), 5);
+        PuzzleLibraryWriter writer = new PuzzleLibraryWriter(file, counts);
+        // mixed order, each puzzle still lands in its own group
+        int[] difficulties = {2, 0, 0, 2, 0};
+        for (int i = 0; i < puzzles.length; i++) {
+            Board puzzle = generator.generate(difficulties[i]);
+            puzzles[i] = puzzle.toArray();
+            writer.add(difficulties[i], puzzle);
+        }
+        writer.close();
+        assertEquals(PuzzleLibrary.headerSize(3) + 5 * PuzzleLibrary.RECORD_SIZE, file.length());
+
+        PuzzleLibrary library = PuzzleLibrary.open(file);
+        assertEquals(3, library.size(0));
+        assertEquals(0, library.size(1));
+        assertEquals(2, library.size(2));
+        assertEquals(0, library.size(3));
+        assertTrue(Arrays.deepEquals(puzzles[1], library.get(0, 0)));
+        assertTrue(Arrays.deepEquals(puzzles[2], library.get(0, 1)));
+        assertTrue(Arrays.deepEquals(puzzles[4], library.get(0, 2)));
+        assertTrue(Arrays.deepEquals(puzzles[0], library.get(2, 0)));
+        assertTrue(Arrays.deepEquals(puzzles[3], library.get(2, 1)));
+    }
+
+    @Test
+    public void notALibrary_isRejected() throws Exception {
+        File file = File.createTempFile("puzzles", ".lib");
+        file.deleteOnExit();
+        FileOutputStream out = new FileOutputStream(file);
+        out.write("000000000000000000000000000000".getBytes("US-ASCII"));
+        out.close();
+
+        try {
+            PuzzleLibrary.open(file);
+            fail("opened a file that isn't a library");
+        } catch (IOException expected) {
+        }
+    }
+
+    @Test
+    public void shortFile_isRejected() throws Exception {
+        File file = File.createTempFile("puzzles", ".lib");
+        file.deleteOnExit();
+        // promise a puzzle but never add it
+        PuzzleLibraryWriter writer = new PuzzleLibraryWriter(file, new int[]{1});
+        try {
+            writer.close();
+            fail("closed without every puzzle");
+        } catch (IOException expected) {
+        }
+
+        try {
+            PuzzleLibrary.open(file);
+            fail("opened a library with missing puzzles");
+        } catch (IOException expected) {
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.jon.sudoku;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the pool fills in the background and counts hits and misses.
+ */
+public class PuzzlePoolTest {
+
+    @Test
+    public void emptyPool_missesThenFills() throws Exception {
+        PuzzlePool pool = new PuzzlePool(2, 0, 5);
+        try {
+            int[][] puzzle = pool.take(2);
+            assertEquals(1, new DancingLinksSolver().countSolutions(new Board(puzzle), 2));
+            assertEquals(0, pool.getHits());
+            assertEquals(1, pool.getMisses());
+
+            long deadline = System.currentTimeMillis() + 10000;
+            while (pool.size(0) < 2 || pool.size(1) < 2 || pool.size(2) < 2) {
+                assertTrue("pool did not fill", System.currentTimeMillis() < deadline);
+                Thread.sleep(10);
+            }
+
+            pool.take(2);
+            assertEquals(1, pool.getHits());
+            assertEquals(1, pool.getMisses());
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
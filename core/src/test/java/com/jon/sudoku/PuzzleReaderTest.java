@@ -0,0 +1,105 @@
+package com.jon.sudoku;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Round trips puzzles through the line format, including lines split across buffer refills.
+ */
+public class PuzzleReaderTest {
+
+    @Test
+    public void writtenPuzzles_readBack() throws Exception {
+        Random random = new Random(6);
+        byte[][] puzzles = new byte[50][Board.CELLS];
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PuzzleWriter writer = new PuzzleWriter(out);
+        for (int i = 0; i < puzzles.length; i++) {
+            for (int cell = 0; cell < Board.CELLS; cell++) {
+                puzzles[i][cell] = (byte) random.nextInt(10);
+            }
+            writer.write(puzzles[i], i % 2 == 0 ? -1 : i * 1000);
+        }
+        writer.close();
+
+        // a buffer smaller than a line makes every puzzle span refills
+        PuzzleReader reader = new PuzzleReader(Channels.newChannel(new ByteArrayInputStream(out.toByteArray())), 7);
+        byte[] digits = new byte[Board.CELLS];
+        for (int i = 0; i < puzzles.length; i++) {
+            assertTrue(reader.next(digits));
+            assertArrayEquals(puzzles[i], digits);
+            assertEquals(i % 2 == 0 ? -1 : i * 1000, reader.getLabel());
+        }
+        assertFalse(reader.next(digits));
+    }
+
+    @Test
+    public void commentsBlankLinesAndDots_areHandled() throws Exception {
+        String text = "# a comment\r\n"
+                + "\r\n"
+                + "1....7.9..3..2...8..96..5....53..9...1..8...26....4...3......1..4......7..7...3.. 5\r\n"
+                + "8..........36......7..9.2...5...7.......457.....1...3...1....68..85...1..9....4..";
+        PuzzleReader reader = new PuzzleReader(new ByteArrayInputStream(text.getBytes("US-ASCII")));
+        byte[] digits = new byte[Board.CELLS];
+
+        assertTrue(reader.next(digits));
+        assertEquals(1, digits[0]);
+        assertEquals(0, digits[1]);
+        assertEquals(7, digits[5]);
+        assertEquals(5, reader.getLabel());
+
+        // last line has no newline
+        assertTrue(reader.next(digits));
+        assertEquals(8, digits[0]);
+        assertEquals(-1, reader.getLabel());
+        assertFalse(reader.next(digits));
+    }
+
+    @Test
+    public void shortLine_isRejected() throws Exception {
+        PuzzleReader reader = new PuzzleReader(new ByteArrayInputStream("123\n".getBytes("US-ASCII")));
+        try {
+            reader.next(new byte[Board.CELLS]);
+            fail("read a 3 cell puzzle");
+        } catch (IOException expected) {
+            assertTrue(expected.getMessage().startsWith("Line 1"));
+        }
+    }
+
+    @Test
+    public void extraCellsOrText_areRejected() throws Exception {
+        String puzzle = "1....7.9..3..2...8..96..5....53..9...1..8...26....4...3......1..4......7..7...3..";
+        String[] lines = {puzzle + "5 3\n", puzzle + ". 3\n", puzzle + " 3x\n", puzzle + " 3 4\n"};
+        for (String text : lines) {
+            PuzzleReader reader = new PuzzleReader(new ByteArrayInputStream(("#\n" + text).getBytes("US-ASCII")));
+            try {
+                reader.next(new byte[Board.CELLS]);
+                fail("read " + text.trim());
+            } catch (IOException expected) {
+                assertTrue(expected.getMessage().startsWith("Line 2"));
+            }
+        }
+
+        PuzzleReader reader = new PuzzleReader(new ByteArrayInputStream((puzzle + "\t 12 \r\n").getBytes("US-ASCII")));
+        assertTrue(reader.next(new byte[Board.CELLS]));
+        assertEquals(12, reader.getLabel());
+    }
+
+    @Test
+    public void board_matchesDigits() throws Exception {
+        byte[] digits = new byte[Board.CELLS];
+        int[][] fixture = GeneratePuzzle.fixture(1);
+        for (int cell = 0; cell < Board.CELLS; cell++) {
+            digits[cell] = (byte) fixture[Board.row(cell)][Board.column(cell)];
+        }
+        assertTrue(Arrays.deepEquals(fixture, new Board(digits).toArray()));
+    }
+}
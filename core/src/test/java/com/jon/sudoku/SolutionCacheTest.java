@@ -0,0 +1,163 @@
+package com.jon.sudoku;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class SolutionCacheTest {
+
+    // Counts the solves that reach the real solver
+    private final AtomicInteger solves = new AtomicInteger();
+
+    @Test
+    public void repeatedPuzzle_isOnlySolvedOnce() throws Exception {
+        SolutionCache cache = new SolutionCache(8);
+        byte[] solution = new byte[Board.CELLS];
+        for (int i = 0; i < 3; i++) {
+            assertTrue(cache.solve(digits(GeneratePuzzle.fixture(2)), countingSolver(), solution));
+        }
+        assertEquals(1, solves.get());
+        assertEquals(2, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(2.0 / 3, cache.getHitRate(), 1e-9);
+
+        Board solved = new Board(solution);
+        assertTrue(solved.isSolved());
+        assertArrayEquals(solved.toArray(), cache.solve(GeneratePuzzle.fixture(2), countingSolver()));
+        assertEquals(1, solves.get());
+    }
+
+    @Test
+    public void full_dropsLeastRecentlyUsed() throws Exception {
+        SolutionCache cache = new SolutionCache(2);
+        byte[] solution = new byte[Board.CELLS];
+        byte[] easy = digits(GeneratePuzzle.fixture(0));
+        byte[] medium = digits(GeneratePuzzle.fixture(1));
+        byte[] hard = digits(GeneratePuzzle.fixture(2));
+        cache.solve(easy, countingSolver(), solution);
+        cache.solve(medium, countingSolver(), solution);
+
+        // using easy again leaves medium as the oldest
+        assertTrue(cache.get(easy, solution));
+        cache.solve(hard, countingSolver(), solution);
+        assertEquals(2, cache.size());
+        assertTrue(cache.get(easy, solution));
+        assertTrue(cache.get(hard, solution));
+        assertFalse(cache.get(medium, solution));
+    }
+
+    @Test
+    public void saved_loadsBackInOrder() throws Exception {
+        File file = File.createTempFile("solutions", ".cache");
+        file.deleteOnExit();
+
+        SolutionCache cache = new SolutionCache(8);
+        byte[] solution = new byte[Board.CELLS];
+        for (int difficulty = 0; difficulty < 3; difficulty++) {
+            cache.solve(digits(GeneratePuzzle.fixture(difficulty)), countingSolver(), solution);
+        }
+        cache.save(file);
+        assertEquals(12 + 3 * 2 * PuzzleLibrary.RECORD_SIZE, file.length());
+
+        // easy was saved as the oldest, so it goes first when the smaller cache fills
+        SolutionCache loaded = new SolutionCache(2);
+        loaded.load(file);
+        assertEquals(2, loaded.size());
+        assertFalse(loaded.get(digits(GeneratePuzzle.fixture(0)), solution));
+        assertTrue(loaded.get(digits(GeneratePuzzle.fixture(2)), solution));
+
+        byte[] expected = new byte[Board.CELLS];
+        new DancingLinksSolver().solve(new Board(GeneratePuzzle.fixture(2)), expected);
+        assertArrayEquals(expected, solution);
+        assertEquals(3, solves.get());
+    }
+
+    @Test
+    public void snapshot_keepsEntriesFromWhenItWasTaken() throws Exception {
+        File file = File.createTempFile("solutions", ".cache");
+        file.deleteOnExit();
+
+        SolutionCache cache = new SolutionCache(8);
+        byte[] solution = new byte[Board.CELLS];
+        cache.solve(digits(GeneratePuzzle.fixture(0)), countingSolver(), solution);
+        SolutionCache.Snapshot snapshot = cache.snapshot();
+        cache.solve(digits(GeneratePuzzle.fixture(1)), countingSolver(), solution);
+        assertEquals(1, snapshot.size());
+
+        snapshot.save(file);
+        SolutionCache loaded = new SolutionCache(8);
+        loaded.load(file);
+        assertEquals(1, loaded.size());
+        assertTrue(loaded.get(digits(GeneratePuzzle.fixture(0)), solution));
+    }
+
+    @Test
+    public void threads_shareTheCache() throws Exception {
+        final SolutionCache cache = new SolutionCache(2);
+        final List<Throwable> failures = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            final int offset = t;
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    Solver solver = new BitboardSolver();
+                    byte[] solution = new byte[Board.CELLS];
+                    try {
+                        for (int i = 0; i < 200; i++) {
+                            byte[] puzzle = digits(GeneratePuzzle.fixture((i + offset) % 3));
+                            assertTrue(cache.solve(puzzle, solver, solution));
+                            assertTrue(new Board(solution).isSolved());
+                        }
+                    } catch (Throwable e) {
+                        synchronized (failures) {
+                            failures.add(e);
+                        }
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(0, failures.size());
+        assertEquals(800, cache.getHits() + cache.getMisses());
+        assertEquals(2, cache.size());
+    }
+
+    private Solver countingSolver() {
+        final Solver solver = new BitboardSolver();
+        return new Solver() {
+            @Override
+            public int countSolutions(Board board, int limit) {
+                return solver.countSolutions(board, limit);
+            }
+
+            @Override
+            public boolean solve(Board board, byte[] solution) {
+                solves.incrementAndGet();
+                return solver.solve(board, solution);
+            }
+
+            @Override
+            public void setStats(SolverStats stats) {
+                solver.setStats(stats);
+            }
+        };
+    }
+
+    private static byte[] digits(int[][] puzzle) {
+        byte[] digits = new byte[Board.CELLS];
+        for (int cell = 0; cell < Board.CELLS; cell++) {
+            digits[cell] = (byte) puzzle[Board.row(cell)][Board.column(cell)];
+        }
+        return digits;
+    }
+}
@@ -0,0 +1,78 @@
+package com.jon.sudoku;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class SolutionCheckerTest {
+
+    @Test
+    public void wrongDigit_isCaughtWithoutAConflict() throws Exception {
+        Board board = new Board(GeneratePuzzle.fixture(2));
+        byte[] solution = new byte[Board.CELLS];
+        assertTrue(new BitboardSolver().solve(board, solution));
+        SolutionChecker checker = new SolutionChecker(board, solution);
+        assertEquals(0, checker.getMistakes());
+
+        // find a digit that fits the cell for now but isn't the solution's
+        int cell = 0;
+        int digit = 0;
+        for (int c = 0; c < Board.CELLS && digit == 0; c++) {
+            for (int d = 1; d <= Board.SIZE && !board.isGiven(c); d++) {
+                if (d != solution[c] && board.canPlace(c, d)) {
+                    cell = c;
+                    digit = d;
+                    break;
+                }
+            }
+        }
+        assertNotEquals(0, digit);
+
+        board.set(cell, digit);
+        checker.update(cell, 0, digit);
+        assertFalse(board.isConflicting(cell));
+        assertTrue(checker.isWrong(cell, board.get(cell)));
+        assertEquals(1, checker.getMistakes());
+
+        board.set(cell, solution[cell]);
+        checker.update(cell, digit, solution[cell]);
+        assertFalse(checker.isWrong(cell, board.get(cell)));
+        assertEquals(0, checker.getMistakes());
+    }
+
+    @Test
+    public void randomMoves_matchFullCount() throws Exception {
+        Board board = new Board(GeneratePuzzle.fixture(1));
+        byte[] solution = new byte[Board.CELLS];
+        assertTrue(new BitboardSolver().solve(board, solution));
+
+        Random random = new Random(23);
+        for (int i = 0; i < 200; i++) {
+            int cell = random.nextInt(Board.CELLS);
+            if (!board.isGiven(cell)) {
+                board.set(cell, random.nextInt(Board.SIZE + 1));
+            }
+        }
+        SolutionChecker checker = new SolutionChecker(board, solution);
+
+        for (int i = 0; i < 5000; i++) {
+            int cell = random.nextInt(Board.CELLS);
+            if (board.isGiven(cell)) {
+                continue;
+            }
+            int digit = random.nextInt(Board.SIZE + 1);
+            checker.update(cell, board.get(cell), digit);
+            board.set(cell, digit);
+
+            int expected = 0;
+            for (int c = 0; c < Board.CELLS; c++) {
+                if (board.get(c) != 0 && board.get(c) != solution[c]) {
+                    expected++;
+                }
+            }
+            assertEquals(expected, checker.getMistakes());
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.jon.sudoku;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the histogram's accuracy and that solvers and the generator fill in stats.
+ */
+public class SolverStatsTest {
+
+    @Test
+    public void percentiles_withinThreePercent() throws Exception {
+        Random random = new Random(8);
+        long[] values = new long[10000];
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) Math.exp(random.nextDouble() * 20);
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+
+        assertEquals(values.length, histogram.getCount());
+        assertEquals(values[values.length - 1], histogram.getMax());
+        for (double percentile : new double[]{1, 50, 90, 99, 99.9}) {
+            long exact = values[(int) Math.ceil(percentile / 100 * values.length) - 1];
+            long estimate = histogram.getPercentile(percentile);
+            assertTrue(estimate >= exact);
+            assertTrue(estimate <= exact + exact / 32 + 1);
+        }
+    }
+
+    @Test
+    public void solvers_countNodes() throws Exception {
+        for (Solver solver : new Solver[]{new BacktrackingSolver(), new DancingLinksSolver(), new BitboardSolver()}) {
+            SolverStats stats = new SolverStats();
+            solver.setStats(stats);
+            solver.countSolutions(new Board(GeneratePuzzle.fixture(2)), 2);
+            assertTrue(stats.getNodes() > 0);
+            assertEquals(1, stats.getSolveTimes(0).getCount());
+
+            solver.setStats(null);
+            solver.countSolutions(new Board(GeneratePuzzle.fixture(2)), 2);
+            assertEquals(1, stats.getSolveTimes(0).getCount());
+        }
+    }
+
+    @Test
+    public void generator_recordsByDifficulty() throws Exception {
+        PuzzleGenerator generator = new PuzzleGenerator(new BitboardSolver(), 9);
+        SolverStats stats = new SolverStats();
+        generator.setStats(stats);
+        generator.generate(2);
+        generator.generate(2);
+
+        assertEquals(2, stats.getGenerateTimes(2).getCount());
+        assertEquals(0, stats.getGenerateTimes(0).getCount());
+        assertTrue(stats.getSolveTimes(2).getCount() > 0);
+        assertTrue(stats.getPropagations() > 0);
+        assertTrue(stats.getTechniqueCount(Technique.NAKED_SINGLE) > 0);
+
+        SolverStats total = new SolverStats();
+        total.add(stats);
+        total.add(stats);
+        assertEquals(4, total.getGenerateTimes(2).getCount());
+        assertEquals(2 * stats.getNodes(), total.getNodes());
+    }
+}
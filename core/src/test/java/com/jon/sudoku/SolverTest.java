@@ -0,0 +1,56 @@
+package com.jon.sudoku;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the solver on the fixture puzzles and on boards with none or many solutions.
+ */
+public class SolverTest {
+
+    protected Solver createSolver() {
+        return new BacktrackingSolver();
+    }
+
+    @Test
+    public void fixtures_haveOneSolution() throws Exception {
+        Solver solver = createSolver();
+        for (int difficulty = 0; difficulty < 3; difficulty++) {
+            Board board = new Board(GeneratePuzzle.fixture(difficulty));
+            assertEquals(1, solver.countSolutions(board, 2));
+
+            byte[] solution = new byte[Board.CELLS];
+            assertTrue(solver.solve(board, solution));
+            assertSolves(board, solution);
+        }
+    }
+
+    @Test
+    public void emptyBoard_stopsAtLimit() throws Exception {
+        assertEquals(5, createSolver().countSolutions(new Board(), 5));
+    }
+
+    @Test
+    public void conflictingBoard_hasNoSolution() throws Exception {
+        Board board = new Board();
+        board.set(Board.cell(0, 0), 1);
+        board.set(Board.cell(1, 1), 1);
+        assertEquals(0, createSolver().countSolutions(board, 2));
+        assertFalse(createSolver().solve(board, new byte[Board.CELLS]));
+    }
+
+    static void assertSolves(Board puzzle, byte[] solution) {
+        Board solved = new Board();
+        for (int cell = 0; cell < Board.CELLS; cell++) {
+            if (puzzle.get(cell) != 0) {
+                assertEquals(puzzle.get(cell), solution[cell]);
+            }
+            solved.set(cell, solution[cell]);
+        }
+        for (int cell = 0; cell < Board.CELLS; cell++) {
+            assertTrue(solved.get(cell) != 0);
+            assertFalse(solved.isConflicting(cell));
+        }
+    }
+}